@@ -11,6 +11,7 @@ import model.chess.Board;
 import model.chess.Color;
 import model.chess.Coordinate;
 import model.chess.Game;
+import model.chess.HumanPlayer;
 import model.chess.Move;
 import model.pieces.Piece;
 import view.PieceView;
@@ -18,8 +19,13 @@ import java.net.URL;
 import java.util.Observable;
 import java.util.Observer;
 import java.util.ResourceBundle;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
 import javafx.fxml.FXML;
@@ -29,6 +35,7 @@ import javafx.geometry.Pos;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
+import javafx.scene.control.CheckMenuItem;
 import javafx.scene.control.Label;
 import javafx.scene.control.MenuItem;
 import javafx.scene.input.MouseEvent;
@@ -45,6 +52,14 @@ import model.chess.ComputerPlayer;
 import model.chess.Duration;
 import model.pieces.King;
 import model.chess.AlertUtils;
+import model.engine.Analysis;
+import model.engine.DefaultEvaluation;
+import model.engine.Hint;
+import model.engine.MateSolver;
+import model.engine.ProofTable;
+import model.engine.Search;
+import model.engine.SearchListener;
+import model.engine.SearchResult;
 
 /**
  * FXML Controller class
@@ -58,6 +73,15 @@ public class ChessFXMLController implements Initializable, Observer {
     private ChessTimer whiteTimer;
     private ChessTimer blackTimer;
 
+    private Analysis analysis;
+    private Hint hint;
+    private Move hintMove;
+
+    //one solver runs at a time, so they can share the table
+    private ExecutorService mateExecutor;
+    private ProofTable proofTable;
+    private MateSolver mateSolver;
+
     @FXML
     private GridPane board;
     @FXML
@@ -72,6 +96,10 @@ public class ChessFXMLController implements Initializable, Observer {
     private MenuItem mainMenu;
     @FXML
     private MenuItem saveGame;
+    @FXML
+    private CheckMenuItem analysisItem;
+    @FXML
+    private Label analysisLabel;
 
     @Override
     public void initialize(URL url, ResourceBundle rb) {
@@ -150,6 +178,9 @@ public class ChessFXMLController implements Initializable, Observer {
         } else {
             pane.getStyleClass().add("darkSpot");
         }
+        if (hintMove != null && (hintMove.getStart().equals(paneCoord) || hintMove.getEnd().equals(paneCoord))) {
+            pane.getStyleClass().add("hint");
+        }
         if (game.isSomePieceSelected()) {
             if (game.getSelectedPieceCoordinates().equals(paneCoord) || isInAvailableMoves(paneCoord)) {
                 pane.getStyleClass().add("selected");
@@ -245,7 +276,10 @@ public class ChessFXMLController implements Initializable, Observer {
 
     @Override
     public void update(Observable o, Object arg) {
+        cancelHint();
+        cancelMateSearch();
         draw();
+        updateAnalysis();
         if (game.isCheckmate()) {
             stopTimers();
             AlertUtils.showInfoDialog(game.getWaitingPlayer().getName() + " wins!!!", "Game Over");
@@ -264,8 +298,181 @@ public class ChessFXMLController implements Initializable, Observer {
         }
     }
 
+    @FXML
+    private void toggleAnalysis(ActionEvent event) {
+        if (analysisItem.isSelected()) {
+            Executor fxExecutor = new Executor() {
+                @Override
+                public void execute(Runnable command) {
+                    Platform.runLater(command);
+                }
+            };
+            analysis = new Analysis(new DefaultEvaluation(), ComputerPlayer.getSharedTable(), fxExecutor, new SearchListener() {
+                @Override
+                public void iterationFinished(SearchResult result) {
+                    showAnalysis(result);
+                }
+            });
+            updateAnalysis();
+        } else {
+            stopAnalysis();
+        }
+    }
+
+    /**
+     * Analysis is restarted after each move and stopped at the end of game
+     */
+    private void updateAnalysis() {
+        if (analysis == null) {
+            return;
+        }
+        if (game.isCheckmate() || game.isStalemate() || game.isOutOfTime()) {
+            analysis.stop();
+        } else {
+            analysis.analyze(game.getBoard());
+        }
+    }
+
+    private void stopAnalysis() {
+        if (analysis != null) {
+            analysis.shutdown();
+            analysis = null;
+        }
+        analysisLabel.setText("");
+    }
+
+    private void showAnalysis(SearchResult result) {
+        //scores are shown from white's point of view
+        int sign = game.getBoard().getSideToMove() == Color.WHITE ? 1 : -1;
+        StringBuilder text = new StringBuilder();
+        for (SearchResult line : result.getLines()) {
+            text.append(formatScore(sign * line.getScore())).append("  depth ").append(line.getDepth())
+                    .append('\n').append(line.getPrincipalVariationSan()).append("\n\n");
+        }
+        analysisLabel.setText(text.toString());
+    }
+
+    private static String formatScore(int score) {
+        if (Math.abs(score) >= Search.MATE_BOUND) {
+            int moves = (Search.MATE - Math.abs(score) + 1) / 2;
+            return (score > 0 ? "#" : "#-") + moves;
+        }
+        return String.format("%+.2f", score / 100.0);
+    }
+
+    @FXML
+    private void showHint(ActionEvent event) {
+        if (!(game.getPlayerOnMove() instanceof HumanPlayer)
+                || game.isCheckmate() || game.isStalemate() || game.isOutOfTime()) {
+            return;
+        }
+        if (hint == null) {
+            Executor fxExecutor = new Executor() {
+                @Override
+                public void execute(Runnable command) {
+                    Platform.runLater(command);
+                }
+            };
+            hint = new Hint(new DefaultEvaluation(), ComputerPlayer.getSharedTable(), fxExecutor, new SearchListener() {
+                @Override
+                public void iterationFinished(SearchResult result) {
+                    hintMove = result.getMove();
+                    draw();
+                }
+            });
+        }
+        hintMove = null;
+        hint.request(game.getBoard());
+    }
+
+    /**
+     * Hint of previous position is removed, search of a late hint is stopped
+     */
+    private void cancelHint() {
+        if (hint != null) {
+            hint.cancel();
+        }
+        hintMove = null;
+    }
+
+    @FXML
+    private void findMate(ActionEvent event) {
+        if (game.isCheckmate() || game.isStalemate() || game.isOutOfTime()) {
+            return;
+        }
+        cancelMateSearch();
+        if (mateExecutor == null) {
+            mateExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "mate-solver");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            proofTable = new ProofTable();
+        }
+        final MateSolver solver = new MateSolver(proofTable);
+        final Board copy = new Board(game.getBoard());
+        mateSolver = solver;
+        analysisLabel.setText("Searching for mate...");
+        mateExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final SearchResult result = solver.solve(copy, MateSolver.DEFAULT_MAX_MOVES, MateSolver.DEFAULT_NODES);
+                Platform.runLater(new Runnable() {
+                    @Override
+                    public void run() {
+                        //solver of previous position was cancelled
+                        if (mateSolver == solver) {
+                            mateSolver = null;
+                            showMate(result);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    private void showMate(SearchResult result) {
+        if (result.getMove() == null) {
+            analysisLabel.setText("No mate in " + MateSolver.DEFAULT_MAX_MOVES + " moves found");
+            return;
+        }
+        hintMove = result.getMove();
+        analysisLabel.setText("Mate in " + (result.getDepth() + 1) / 2 + "\n" + result.getPrincipalVariationSan());
+        draw();
+    }
+
+    private void cancelMateSearch() {
+        if (mateSolver != null) {
+            mateSolver.stop();
+            mateSolver = null;
+        }
+    }
+
+    /**
+     * Stops the game with all its searches and timers, when the game window
+     * is left. Can be called more times.
+     */
+    public void stopGame() {
+        game.deleteObserver(this);
+        game.stop();
+        stopTimers();
+        stopAnalysis();
+        cancelMateSearch();
+        if (mateExecutor != null) {
+            mateExecutor.shutdownNow();
+        }
+        if (hint != null) {
+            hint.shutdown();
+            hint = null;
+        }
+    }
+
     @FXML
     private void goToMainMenu() {
+        stopGame();
         try {
             Stage stage = new Stage();
             FXMLLoader loader = new FXMLLoader();
@@ -11,6 +11,7 @@ import java.net.URL;
 import java.util.ResourceBundle;
 import java.util.logging.Level;
 import java.util.logging.Logger; 
+import javafx.event.EventHandler;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
@@ -21,6 +22,7 @@ import javafx.scene.control.MenuItem;
 import javafx.scene.input.MouseEvent;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
+import javafx.stage.WindowEvent;
 import model.chess.AlertUtils;
 import model.chess.ChessLoader;
 import model.chess.Game;
@@ -103,6 +105,12 @@ public class GameOptionsController implements Initializable {
 
             Scene scene = new Scene(root);
             stage.setScene(scene);
+            stage.setOnHidden(new EventHandler<WindowEvent>() {
+                @Override
+                public void handle(WindowEvent event) {
+                    controller.stopGame();
+                }
+            });
 
             stage.show();
             ((Stage) newGameButton.getScene().getWindow()).close();
@@ -12,10 +12,13 @@ import model.chess.HumanPlayer;
 import model.chess.Player;
 import java.io.IOException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.ResourceBundle;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javafx.collections.FXCollections;
+import javafx.event.EventHandler;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
@@ -30,8 +33,10 @@ import javafx.scene.image.ImageView;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.text.Font;
 import javafx.stage.Stage;
+import javafx.stage.WindowEvent;
 import model.chess.AlertUtils;
 import model.chess.ComputerPlayer;
+import model.engine.Strength;
 
 /**
  * FXML Controller class
@@ -70,10 +75,10 @@ public class GameSetupController implements Initializable {
     @Override
     public void initialize(URL url, ResourceBundle rb) {
         
-        player1ChoiceBox.setItems(FXCollections.observableArrayList("Human Player", "Computer"));
+        player1ChoiceBox.setItems(FXCollections.observableArrayList(getPlayerTypes()));
         player1ChoiceBox.getSelectionModel().selectFirst();
 
-        player2ChoiceBox.setItems(FXCollections.observableArrayList("Human Player", "Computer"));
+        player2ChoiceBox.setItems(FXCollections.observableArrayList(getPlayerTypes()));
         player2ChoiceBox.getSelectionModel().selectFirst();
 
         player1ColorLabel.setFont(Font.loadFont(ChessFXMLController.class.getResource("/fonts/CASEFONT.TTF").toExternalForm(), 30));
@@ -100,6 +105,12 @@ public class GameSetupController implements Initializable {
 
             Scene scene = new Scene(root);
             stage.setScene(scene);
+            stage.setOnHidden(new EventHandler<WindowEvent>() {
+                @Override
+                public void handle(WindowEvent event) {
+                    controller.stopGame();
+                }
+            });
 
             stage.show();
             ((Stage) newGameButton.getScene().getWindow()).close();
@@ -115,34 +126,49 @@ public class GameSetupController implements Initializable {
         Player playerBlack;
 
         if (player1ColorLabel.getText().equals("r")) {
-            if (player1ChoiceBox.getValue().equals("Human Player")) {
-                playerWhite = new HumanPlayer(player1EditText.getText(), Color.WHITE);
-            } else {
-                playerWhite = new ComputerPlayer(player1EditText.getText(), Color.WHITE);
-            }
-            if (player2ChoiceBox.getValue().equals("Human Player")) {
-                playerBlack = new HumanPlayer(player2EditText.getText(), Color.BLACK);
-            } else {
-                playerBlack = new ComputerPlayer(player2EditText.getText(), Color.BLACK);
-            }
+            playerWhite = createPlayer(player1ChoiceBox.getValue(), player1EditText.getText(), Color.WHITE);
+            playerBlack = createPlayer(player2ChoiceBox.getValue(), player2EditText.getText(), Color.BLACK);
         } else {
-            if (player1ChoiceBox.getValue().equals("Human Player")) {
-                playerWhite = new HumanPlayer(player1EditText.getText(), Color.BLACK);
-            } else {
-                playerWhite = new ComputerPlayer(player1EditText.getText(), Color.BLACK);
-            }
-            if (player2ChoiceBox.getValue().equals("Human Player")) {
-                playerBlack = new HumanPlayer(player2EditText.getText(), Color.WHITE);
-            } else {
-                playerBlack = new ComputerPlayer(player2EditText.getText(), Color.WHITE);
-            }
+            playerWhite = createPlayer(player1ChoiceBox.getValue(), player1EditText.getText(), Color.BLACK);
+            playerBlack = createPlayer(player2ChoiceBox.getValue(), player2EditText.getText(), Color.WHITE);
         }
 
         return new Game(board, playerWhite, playerBlack);
     }
 
+    private static List<String> getPlayerTypes() {
+        List<String> types = new ArrayList<>();
+        types.add("Human Player");
+        for (Strength strength : Strength.values()) {
+            types.add(getComputerType(strength));
+        }
+        types.add("Computer (Monte Carlo)");
+        return types;
+    }
+
+    private static String getComputerType(Strength strength) {
+        if (strength == Strength.MAXIMUM) {
+            return "Computer";
+        }
+        return "Computer (" + strength + ")";
+    }
+
+    private static Player createPlayer(String type, String name, Color color) {
+        for (Strength strength : Strength.values()) {
+            if (type.equals(getComputerType(strength))) {
+                return new ComputerPlayer(name, color, strength);
+            }
+        }
+        if (type.equals("Computer (Monte Carlo)")) {
+            ComputerPlayer player = new ComputerPlayer(name, color);
+            player.setMonteCarlo(true);
+            return player;
+        }
+        return new HumanPlayer(name, color);
+    }
+
     private boolean isDataCorrect() {
-        if (player1ChoiceBox.getValue().equals("Computer") && player2ChoiceBox.getValue().equals("Computer")) {
+        if (!player1ChoiceBox.getValue().equals("Human Player") && !player2ChoiceBox.getValue().equals("Human Player")) {
             AlertUtils.showInfoDialog("At least one player has to be human","Incorrect data");
             return false;
         }
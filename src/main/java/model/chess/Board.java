@@ -12,6 +12,7 @@ import model.pieces.Knight;
 import model.pieces.Bishop;
 import model.pieces.Rook;
 import model.pieces.Pawn;
+import model.pieces.PieceType;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Observable;
@@ -27,8 +28,40 @@ public class Board extends Observable {
      */
     public static final int BOARD_SIZE = 8;
 
+    /**
+     * Castling rights flags returned by getCastlingRights
+     */
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 2;
+    public static final int BLACK_KINGSIDE = 4;
+    public static final int BLACK_QUEENSIDE = 8;
+
+    private static final int[][] KNIGHT_JUMPS = {
+        {1, 2}, {2, 1}, {2, -1}, {1, -2}, {-1, -2}, {-2, -1}, {-2, 1}, {-1, 2}
+    };
+    private static final int[][] DIRECTIONS = {
+        {1, 0}, {-1, 0}, {0, 1}, {0, -1}, {1, 1}, {1, -1}, {-1, 1}, {-1, -1}
+    };
+    private static final int CHECK_UNKNOWN = -1;
+
     private Spot[][] spots;
     private Move lastMove;
+    private Color sideToMove = Color.WHITE;
+
+    private Undo[] history = new Undo[64];
+    private int historySize;
+
+    private long hash;
+    //material after each capture of static exchange evaluation
+    private final int[] seeGains = new int[32];
+
+    //last known spots of kings as y * 8 + x indexed by color, verified on use
+    //because pieces can be placed on spots directly
+    private final int[] kingSquares = {-1, -1};
+    //whether side to move is in check, computed when first asked
+    private int checkState = CHECK_UNKNOWN;
+
+    private static boolean hashVerification = Boolean.getBoolean("chess.verifyHash");
 
     /**
      * Create board with standard setup
@@ -36,6 +69,7 @@ public class Board extends Observable {
     public Board() {
         spots = new Spot[BOARD_SIZE][BOARD_SIZE];
         setupPieces();
+        hash = computeHash();
     }
 
     /**
@@ -54,6 +88,29 @@ public class Board extends Observable {
                 }
             }
         }
+        hash = computeHash();
+    }
+
+    /**
+     * Copy of position with new pieces, so the copy can be changed
+     * independently, e.g. by search in another thread. Observers and history
+     * of moves are not copied.
+     *
+     * @param board
+     */
+    public Board(Board board) {
+        this.spots = new Spot[BOARD_SIZE][BOARD_SIZE];
+        for (int i = 0; i < BOARD_SIZE; i++) {
+            for (int j = 0; j < BOARD_SIZE; j++) {
+                Piece piece = board.getPieceAt(j, i);
+                this.spots[i][j] = new Spot(piece == null ? null : piece.copy());
+            }
+        }
+        this.sideToMove = board.sideToMove;
+        if (board.lastMove != null) {
+            this.lastMove = board.lastMove.copy(this);
+        }
+        this.hash = board.hash;
     }
 
     /**
@@ -65,26 +122,126 @@ public class Board extends Observable {
         if (move == null) {
             return;
         }
+        makeMove(move);
+        //Send event that player made a move
+        setChanged();
+        notifyObservers();
+    }
+
+    /**
+     * Move piece on board without notification, so the move can be taken
+     * back by undoMove
+     *
+     * @param move
+     */
+    public void makeMove(Move move) {
         Piece piece = getPieceAt(move.getStart());
+        Undo undo = pushUndo();
+        undo.hash = hash;
+        undo.move = move;
+        undo.piece = piece;
+        undo.moved = piece.hasMoved();
+        undo.lastMove = lastMove;
+        undo.sideToMove = sideToMove;
+        undo.checkState = checkState;
+        undo.capturedX = move.getEndX();
+        undo.capturedY = move.getEndY();
+        if (move.isEnPassant()) {
+            undo.capturedY = move.getStartY();
+        }
+        undo.captured = getPieceAt(undo.capturedX, undo.capturedY);
+        long stateBefore = stateKey();
+
         if (move.isCastling()) {
             castle(piece, move);
-            return;
-        }
-        if (move.isEnPassant()) {
+        } else if (move.isEnPassant()) {
             enPassant(piece, move);
-            return;
-        }
-        if (move.isPromotion()) {
+        } else if (move.isPromotion()) {
             promotion(piece, move);
-            return;
+        } else {
+            clearSpot(move.getStart());
+            putPiece(piece, move.getEnd());
         }
-        removePieceAt(move.getStart());
-        addPiece(piece, move.getEnd());
         piece.setMoved(true);
         lastMove = move;
-        //Send event that player made a move
-        setChanged();
-        notifyObservers();
+        sideToMove = piece.getColor().opposite();
+        checkState = CHECK_UNKNOWN;
+        hash ^= stateBefore ^ stateKey();
+        verifyHash();
+    }
+
+    /**
+     * Passes the turn to the opponent without moving, used by null move
+     * pruning of search. It is taken back by undoMove.
+     */
+    public void makeNullMove() {
+        Undo undo = pushUndo();
+        undo.hash = hash;
+        undo.lastMove = lastMove;
+        undo.sideToMove = sideToMove;
+        undo.checkState = checkState;
+        long stateBefore = stateKey();
+        lastMove = null;
+        sideToMove = sideToMove.opposite();
+        checkState = CHECK_UNKNOWN;
+        hash ^= stateBefore ^ stateKey();
+        verifyHash();
+    }
+
+    /**
+     * Takes back the last move made by makeMove, makeNullMove or moveTo
+     */
+    public void undoMove() {
+        Undo undo = history[--historySize];
+        Move move = undo.move;
+        if (move == null) {
+            lastMove = undo.lastMove;
+            sideToMove = undo.sideToMove;
+            checkState = undo.checkState;
+            hash = undo.hash;
+            undo.clear();
+            verifyHash();
+            return;
+        }
+        if (move.isCastling()) {
+            Move rookMove = move.getCastlingRookMove(undo.piece.getColor());
+            Piece rook = getPieceAt(rookMove.getEnd());
+            clearSpot(rookMove.getEnd());
+            putPiece(rook, rookMove.getStart());
+            rook.setMoved(false);
+        }
+        clearSpot(move.getEnd());
+        putPiece(undo.piece, move.getStart());
+        if (undo.captured != null) {
+            putPiece(undo.captured, new Coordinate(undo.capturedX, undo.capturedY));
+        }
+        undo.piece.setMoved(undo.moved);
+        lastMove = undo.lastMove;
+        sideToMove = undo.sideToMove;
+        checkState = undo.checkState;
+        hash = undo.hash;
+        undo.clear();
+        verifyHash();
+    }
+
+    /**
+     *
+     * @return number of moves, which can be taken back
+     */
+    public int getHistorySize() {
+        return historySize;
+    }
+
+    private Undo pushUndo() {
+        if (historySize == history.length) {
+            Undo[] bigger = new Undo[history.length * 2];
+            System.arraycopy(history, 0, bigger, 0, history.length);
+            history = bigger;
+        }
+        if (history[historySize] == null) {
+            history[historySize] = new Undo();
+        }
+        return history[historySize++];
     }
 
     /**
@@ -101,38 +258,26 @@ public class Board extends Observable {
     private void castle(Piece piece, Move move) {
         Move rookMove = move.getCastlingRookMove(piece.getColor());
         Piece rook = getPieceAt(rookMove.getStart());
-        removePieceAt(move.getStart());
-        removePieceAt(rookMove.getStart());
-        addPiece(piece, move.getEnd());
-        addPiece(rook, rookMove.getEnd());
-        piece.setMoved(true);
-        setChanged();
-        notifyObservers();
+        clearSpot(move.getStart());
+        clearSpot(rookMove.getStart());
+        putPiece(piece, move.getEnd());
+        putPiece(rook, rookMove.getEnd());
+        rook.setMoved(true);
     }
 
     private void enPassant(Piece piece, Move move) {
-        removePieceAt(move.getStart());
-        addPiece(piece, move.getEnd());
+        clearSpot(move.getStart());
+        putPiece(piece, move.getEnd());
         if (piece.getColor() == Color.WHITE) {
-            removePieceAt(new Coordinate(move.getEndX(), move.getEndY() + 1));
+            clearSpot(new Coordinate(move.getEndX(), move.getEndY() + 1));
         } else {
-            removePieceAt(new Coordinate(move.getEndX(), move.getEndY() - 1));
+            clearSpot(new Coordinate(move.getEndX(), move.getEndY() - 1));
         }
-        setChanged();
-        notifyObservers();
     }
 
     private void promotion(Piece piece, Move move) {
-        removePieceAt(move.getStart());
-        addPiece(new Queen(piece.getColor()), move.getEnd());
-        setChanged();
-        notifyObservers();
-    }
-
-    private void makeImaginaryMove(Move move) {
-        Piece piece = getPieceAt(move.getStart());
-        removePieceAt(move.getStart());
-        addPiece(piece, move.getEnd());
+        clearSpot(move.getStart());
+        putPiece(new Queen(piece.getColor()), move.getEnd());
     }
 
     /**
@@ -142,7 +287,34 @@ public class Board extends Observable {
      * @param coord target coordinates
      */
     public void addPiece(Piece piece, Coordinate coord) {
-        spots[coord.getY()][coord.getX()] = new Spot(piece);
+        //castling rights depend on placement of kings and rooks
+        long stateBefore = stateKey();
+        putPiece(piece, coord);
+        hash ^= stateBefore ^ stateKey();
+    }
+
+    /**
+     * Places piece and updates keys of pieces, state key is updated by caller
+     */
+    private void putPiece(Piece piece, Coordinate coord) {
+        int x = coord.getX();
+        int y = coord.getY();
+        Spot spot = spots[y][x];
+        if (spot == null) {
+            spot = new Spot();
+            spots[y][x] = spot;
+        }
+        if (spot.getPiece() != null) {
+            hash ^= Zobrist.piece(spot.getPiece(), x, y);
+        }
+        if (piece != null) {
+            hash ^= Zobrist.piece(piece, x, y);
+            if (piece.getType() == PieceType.KING) {
+                kingSquares[piece.getColor().ordinal()] = y * BOARD_SIZE + x;
+            }
+        }
+        spot.setPiece(piece);
+        checkState = CHECK_UNKNOWN;
     }
 
     /**
@@ -153,7 +325,11 @@ public class Board extends Observable {
         for (int i = 0; i < BOARD_SIZE; i++) {
             for (int j = 0; j < BOARD_SIZE; j++) {
                 if (spots[i][j] != null && spots[i][j].getPiece() == piece) {
+                    long stateBefore = stateKey();
+                    hash ^= Zobrist.piece(piece, j, i);
                     spots[i][j].removePiece();
+                    checkState = CHECK_UNKNOWN;
+                    hash ^= stateBefore ^ stateKey();
                     return;
                 }
             }
@@ -165,10 +341,22 @@ public class Board extends Observable {
      * @param coord target coordinates
      */
     public void removePieceAt(Coordinate coord) {
+        long stateBefore = stateKey();
+        clearSpot(coord);
+        hash ^= stateBefore ^ stateKey();
+    }
+
+    /**
+     * Removes piece and updates keys of pieces, state key is updated by
+     * caller
+     */
+    private void clearSpot(Coordinate coord) {
         int x = coord.getY();
         int y = coord.getX();
-        if (spots[x][y] != null) {
+        if (spots[x][y] != null && spots[x][y].getPiece() != null) {
+            hash ^= Zobrist.piece(spots[x][y].getPiece(), y, x);
             spots[x][y].removePiece();
+            checkState = CHECK_UNKNOWN;
         }
     }
 
@@ -221,22 +409,191 @@ public class Board extends Observable {
      * @return true if player is in check
      */
     public boolean isInCheck(Color color) {
-        Coordinate kingCoord = findKing(color);
-        for (Move move : getAllAvailableMovesByColor(color.opposite())) {
-            if (move.getEnd().equals(kingCoord)) {
+        int king = findKingSquare(color);
+        if (king < 0) {
+            return false;
+        }
+        int x = king % BOARD_SIZE;
+        int y = king / BOARD_SIZE;
+        if (color != sideToMove) {
+            return isAttacked(x, y, color.opposite());
+        }
+        //the answer for side to move is kept until the position changes, so
+        //check found by the previous ply is not looked for again
+        if (checkState == CHECK_UNKNOWN) {
+            boolean check;
+            if (lastMove != null && !lastMove.isCastling() && !lastMove.isEnPassant()) {
+                check = isCheckedByMove(lastMove, x, y, color.opposite());
+            } else {
+                check = isAttacked(x, y, color.opposite());
+            }
+            checkState = check ? 1 : 0;
+        }
+        return checkState == 1;
+    }
+
+    /**
+     * King of side to move was not attacked before the move was made, so it
+     * can be attacked only by the moved piece or by a slider behind the spot
+     * it left
+     */
+    private boolean isCheckedByMove(Move move, int kingX, int kingY, Color attacker) {
+        int endX = move.getEndX();
+        int endY = move.getEndY();
+        Piece piece = getPieceAt(endX, endY);
+        int dx = endX - kingX;
+        int dy = endY - kingY;
+        switch (piece.getType()) {
+            case PAWN:
+                //white pawns capture upwards, so they stand below the king
+                if (Math.abs(dx) == 1 && dy == (attacker == Color.WHITE ? 1 : -1)) {
+                    return true;
+                }
+                break;
+            case KNIGHT:
+                if (Math.abs(dx * dy) == 2) {
+                    return true;
+                }
+                break;
+            case KING:
+                break;
+            default:
+                int direction = directionOf(dx, dy);
+                if (direction >= 0 && slidesAlong(piece.getType(), direction)
+                        && firstPieceFrom(kingX, kingY, direction) == piece) {
+                    return true;
+                }
+        }
+        //discovered check
+        int direction = directionOf(move.getStartX() - kingX, move.getStartY() - kingY);
+        if (direction < 0) {
+            return false;
+        }
+        Piece behind = firstPieceFrom(kingX, kingY, direction);
+        return behind != null && behind.getColor() == attacker && slidesAlong(behind.getType(), direction);
+    }
+
+    /**
+     *
+     * @return index to DIRECTIONS of line from origin to the offset, -1 if it
+     * does not lie on a line
+     */
+    private static int directionOf(int dx, int dy) {
+        if (dx == 0 && dy == 0 || dx != 0 && dy != 0 && Math.abs(dx) != Math.abs(dy)) {
+            return -1;
+        }
+        int sx = Integer.signum(dx);
+        int sy = Integer.signum(dy);
+        for (int i = 0; i < DIRECTIONS.length; i++) {
+            if (DIRECTIONS[i][0] == sx && DIRECTIONS[i][1] == sy) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean slidesAlong(PieceType type, int direction) {
+        return type == PieceType.QUEEN || type == (direction < 4 ? PieceType.ROOK : PieceType.BISHOP);
+    }
+
+    private Piece firstPieceFrom(int x, int y, int direction) {
+        int dx = DIRECTIONS[direction][0];
+        int dy = DIRECTIONS[direction][1];
+        for (int tx = x + dx, ty = y + dy; tx >= 0 && tx < BOARD_SIZE && ty >= 0 && ty < BOARD_SIZE; tx += dx, ty += dy) {
+            Piece piece = getPieceAt(tx, ty);
+            if (piece != null) {
+                return piece;
+            }
+        }
+        return null;
+    }
+
+    /**
+     *
+     * @return spot of king as y * 8 + x, -1 if there is no king
+     */
+    private int findKingSquare(Color color) {
+        int king = kingSquares[color.ordinal()];
+        if (king >= 0 && isPieceAt(king % BOARD_SIZE, king / BOARD_SIZE, PieceType.KING, color)) {
+            return king;
+        }
+        for (int y = 0; y < BOARD_SIZE; y++) {
+            for (int x = 0; x < BOARD_SIZE; x++) {
+                if (isPieceAt(x, y, PieceType.KING, color)) {
+                    kingSquares[color.ordinal()] = y * BOARD_SIZE + x;
+                    return y * BOARD_SIZE + x;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Looks from the spot along lines of all piece types instead of
+     * generating moves of attacker
+     *
+     * @param coord attacked spot
+     * @param attacker color of attacking player
+     * @return true if some piece of attacker can capture on that spot
+     */
+    public boolean isAttacked(Coordinate coord, Color attacker) {
+        return isAttacked(coord.getX(), coord.getY(), attacker);
+    }
+
+    private boolean isAttacked(int x, int y, Color attacker) {
+        //pawns, white pawns capture upwards
+        int pawnY = attacker == Color.WHITE ? y + 1 : y - 1;
+        if (isPieceAt(x - 1, pawnY, PieceType.PAWN, attacker) || isPieceAt(x + 1, pawnY, PieceType.PAWN, attacker)) {
+            return true;
+        }
+        for (int i = 0; i < KNIGHT_JUMPS.length; i++) {
+            if (isPieceAt(x + KNIGHT_JUMPS[i][0], y + KNIGHT_JUMPS[i][1], PieceType.KNIGHT, attacker)) {
                 return true;
             }
         }
+        for (int i = 0; i < DIRECTIONS.length; i++) {
+            int dx = DIRECTIONS[i][0];
+            int dy = DIRECTIONS[i][1];
+            boolean diagonal = dx != 0 && dy != 0;
+            int tx = x + dx;
+            int ty = y + dy;
+            int distance = 1;
+            while (tx >= 0 && tx < BOARD_SIZE && ty >= 0 && ty < BOARD_SIZE) {
+                Piece piece = spots[ty][tx] == null ? null : spots[ty][tx].getPiece();
+                if (piece != null) {
+                    if (piece.getColor() == attacker) {
+                        PieceType type = piece.getType();
+                        if (type == PieceType.QUEEN
+                                || type == (diagonal ? PieceType.BISHOP : PieceType.ROOK)
+                                || (type == PieceType.KING && distance == 1)) {
+                            return true;
+                        }
+                    }
+                    break;
+                }
+                tx += dx;
+                ty += dy;
+                distance++;
+            }
+        }
         return false;
     }
 
+    private boolean isPieceAt(int x, int y, PieceType type, Color color) {
+        if (x < 0 || x >= BOARD_SIZE || y < 0 || y >= BOARD_SIZE || spots[y][x] == null) {
+            return false;
+        }
+        Piece piece = spots[y][x].getPiece();
+        return piece != null && piece.getType() == type && piece.getColor() == color;
+    }
+
     /**
      *
      * @param color Color of player
      * @return true if player is in stalemate
      */
     public boolean isStalemate(Color color) {
-        return !isInCheck(color) && getAllLegalMovesByColor(color).isEmpty();
+        return !isInCheck(color) && !hasLegalMove(color);
     }
 
     /**
@@ -245,12 +602,177 @@ public class Board extends Observable {
      * @return True if player is checkmated
      */
     public boolean isCheckMate(Color color) {
-        if (isInCheck(color) && getAllLegalMovesByColor(color).isEmpty()) {
+        if (isInCheck(color) && !hasLegalMove(color)) {
             return true;
         }
         return false;
     }
 
+    /**
+     * Stops at the first legal move, so it is much faster than generation of
+     * all legal moves, when the player is not mated
+     *
+     * @param color Color of player
+     * @return true if player has at least one legal move
+     */
+    public boolean hasLegalMove(Color color) {
+        for (Piece piece : getAllPiecesbyColor(color)) {
+            List<Move> moves = piece.getAllAvailableMoves(this);
+            for (int i = 0; i < moves.size(); i++) {
+                if (!isInCheckAfterThisMove(moves.get(i), color)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Static exchange evaluation. Pieces of both sides attacking the target
+     * spot capture there in order from the least valuable one, including
+     * sliders standing behind other attackers, and each side stops when
+     * capturing would lose material. No move is made on board.
+     *
+     * @param move capture, other moves are evaluated as the first capture
+     * of a piece moved to the target spot
+     * @return material won by the side making the move, in centipawns
+     */
+    public int see(Move move) {
+        if (move.isCastling()) {
+            return 0;
+        }
+        int x = move.getEndX();
+        int y = move.getEndY();
+        Piece piece = getPieceAt(move.getStartX(), move.getStartY());
+        int[] gains = seeGains;
+        int onSpot = piece.getType().getValue();
+        long removed = 1L << (move.getStartY() * BOARD_SIZE + move.getStartX());
+        if (move.isEnPassant()) {
+            gains[0] = PieceType.PAWN.getValue();
+            removed |= 1L << (move.getStartY() * BOARD_SIZE + x);
+        } else {
+            Piece captured = getPieceAt(x, y);
+            gains[0] = captured == null ? 0 : captured.getType().getValue();
+        }
+        if (move.isPromotion()) {
+            gains[0] += PieceType.QUEEN.getValue() - PieceType.PAWN.getValue();
+            onSpot = PieceType.QUEEN.getValue();
+        }
+
+        long attackers = getAttackers(x, y, removed);
+        Color side = piece.getColor().opposite();
+        int depth = 0;
+        while (true) {
+            int from = getLeastValuableAttacker(attackers & ~removed, side);
+            if (from < 0) {
+                break;
+            }
+            Piece attacker = getPieceAt(from % BOARD_SIZE, from / BOARD_SIZE);
+            if (attacker.getType() == PieceType.KING
+                    && getLeastValuableAttacker(attackers & ~removed & ~(1L << from), side.opposite()) >= 0) {
+                //king cannot capture a defended piece
+                break;
+            }
+            depth++;
+            gains[depth] = onSpot - gains[depth - 1];
+            onSpot = attacker.getType().getValue();
+            if (attacker.getType() == PieceType.PAWN && (y == 0 || y == BOARD_SIZE - 1)) {
+                gains[depth] += PieceType.QUEEN.getValue() - PieceType.PAWN.getValue();
+                onSpot = PieceType.QUEEN.getValue();
+            }
+            if (Math.max(-gains[depth - 1], gains[depth]) < 0) {
+                //the capture cannot change the result, side to move stops
+                depth--;
+                break;
+            }
+            if (depth == gains.length - 1) {
+                break;
+            }
+            removed |= 1L << from;
+            attackers |= getXrayAttacker(x, y, from, removed);
+            side = side.opposite();
+        }
+        //each side may stop capturing when it would lose material
+        while (depth > 0) {
+            gains[depth - 1] = -Math.max(-gains[depth - 1], gains[depth]);
+            depth--;
+        }
+        return gains[0];
+    }
+
+    /**
+     *
+     * @return set of spots as bits y * 8 + x of pieces of both sides
+     * attacking the spot, removed pieces are ignored and do not block lines
+     */
+    private long getAttackers(int x, int y, long removed) {
+        long attackers = 0;
+        attackers |= pieceBit(x - 1, y + 1, PieceType.PAWN, Color.WHITE);
+        attackers |= pieceBit(x + 1, y + 1, PieceType.PAWN, Color.WHITE);
+        attackers |= pieceBit(x - 1, y - 1, PieceType.PAWN, Color.BLACK);
+        attackers |= pieceBit(x + 1, y - 1, PieceType.PAWN, Color.BLACK);
+        for (int i = 0; i < KNIGHT_JUMPS.length; i++) {
+            int tx = x + KNIGHT_JUMPS[i][0];
+            int ty = y + KNIGHT_JUMPS[i][1];
+            attackers |= pieceBit(tx, ty, PieceType.KNIGHT, Color.WHITE) | pieceBit(tx, ty, PieceType.KNIGHT, Color.BLACK);
+        }
+        for (int i = 0; i < DIRECTIONS.length; i++) {
+            int tx = x + DIRECTIONS[i][0];
+            int ty = y + DIRECTIONS[i][1];
+            attackers |= pieceBit(tx, ty, PieceType.KING, Color.WHITE) | pieceBit(tx, ty, PieceType.KING, Color.BLACK);
+            attackers |= getSlider(x, y, i, removed);
+        }
+        return attackers & ~removed;
+    }
+
+    /**
+     *
+     * @return bit of slider attacking spot from direction, 0 if there is none
+     */
+    private long getSlider(int x, int y, int direction, long removed) {
+        int dx = DIRECTIONS[direction][0];
+        int dy = DIRECTIONS[direction][1];
+        for (int tx = x + dx, ty = y + dy; tx >= 0 && tx < BOARD_SIZE && ty >= 0 && ty < BOARD_SIZE; tx += dx, ty += dy) {
+            long bit = 1L << (ty * BOARD_SIZE + tx);
+            Piece piece = getPieceAt(tx, ty);
+            if (piece != null && (removed & bit) == 0) {
+                return slidesAlong(piece.getType(), direction) ? bit : 0;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     *
+     * @return bit of slider revealed behind the attacker which has just
+     * captured, 0 if there is none
+     */
+    private long getXrayAttacker(int x, int y, int from, long removed) {
+        int direction = directionOf(from % BOARD_SIZE - x, from / BOARD_SIZE - y);
+        return direction < 0 ? 0 : getSlider(x, y, direction, removed);
+    }
+
+    private int getLeastValuableAttacker(long attackers, Color color) {
+        int best = -1;
+        int bestValue = Integer.MAX_VALUE;
+        while (attackers != 0) {
+            int square = Long.numberOfTrailingZeros(attackers);
+            attackers &= attackers - 1;
+            Piece piece = getPieceAt(square % BOARD_SIZE, square / BOARD_SIZE);
+            //king is the most valuable attacker
+            int value = piece.getType() == PieceType.KING ? Integer.MAX_VALUE - 1 : piece.getType().getValue();
+            if (piece.getColor() == color && value < bestValue) {
+                best = square;
+                bestValue = value;
+            }
+        }
+        return best;
+    }
+
+    private long pieceBit(int x, int y, PieceType type, Color color) {
+        return isPieceAt(x, y, type, color) ? 1L << (y * BOARD_SIZE + x) : 0;
+    }
+
     /**
      * Makes a move, check player for check and then undo the move
      *
@@ -262,14 +784,9 @@ public class Board extends Observable {
         if (move.isCastling()) {
             return false;
         }
-        boolean check = false;
-        Piece piece = getPieceAt(move.getEnd());
-        makeImaginaryMove(move);
-        if (isInCheck(color)) {
-            check = true;
-        }
-        makeImaginaryMove(move.invertMove());
-        addPiece(piece, move.getEnd());
+        makeMove(move);
+        boolean check = isInCheck(color);
+        undoMove();
         return check;
     }
 
@@ -279,9 +796,14 @@ public class Board extends Observable {
      * @return list of moves including ones, which causes check
      */
     public List<Move> getAllAvailableMovesByColor(Color color) {
-        List<Move> moves = new ArrayList<>();
+        //enough for most positions, so the list does not grow
+        List<Move> moves = new ArrayList<>(64);
         for (Piece piece : getAllPiecesbyColor(color)) {
-            moves.addAll(piece.getAllAvailableMoves(this));
+            //addAll would copy moves to a temporary array
+            List<Move> pieceMoves = piece.getAllAvailableMoves(this);
+            for (int i = 0; i < pieceMoves.size(); i++) {
+                moves.add(pieceMoves.get(i));
+            }
         }
         return moves;
     }
@@ -299,6 +821,91 @@ public class Board extends Observable {
         return moves;
     }
 
+    /**
+     * Generates only captures and promotions straight from the spots, much
+     * faster than filtering all available moves. Used by quiescence search.
+     *
+     * @param color color of player
+     * @return captures and promotions including ones, which causes check
+     */
+    public List<Move> getAllCapturesByColor(Color color) {
+        List<Move> moves = new ArrayList<>();
+        int enPassantFile = getEnPassantFile();
+        for (int y = 0; y < BOARD_SIZE; y++) {
+            for (int x = 0; x < BOARD_SIZE; x++) {
+                Piece piece = getPieceAt(x, y);
+                if (piece == null || piece.getColor() != color) {
+                    continue;
+                }
+                switch (piece.getType()) {
+                    case PAWN:
+                        addPawnCaptures(moves, x, y, color, enPassantFile);
+                        break;
+                    case KNIGHT:
+                        for (int[] jump : KNIGHT_JUMPS) {
+                            addCapture(moves, x, y, x + jump[0], y + jump[1], color, MoveType.REGULAR);
+                        }
+                        break;
+                    case KING:
+                        for (int[] direction : DIRECTIONS) {
+                            addCapture(moves, x, y, x + direction[0], y + direction[1], color, MoveType.REGULAR);
+                        }
+                        break;
+                    case BISHOP:
+                        addSlidingCaptures(moves, x, y, color, 4, 8);
+                        break;
+                    case ROOK:
+                        addSlidingCaptures(moves, x, y, color, 0, 4);
+                        break;
+                    case QUEEN:
+                        addSlidingCaptures(moves, x, y, color, 0, 8);
+                        break;
+                }
+            }
+        }
+        return moves;
+    }
+
+    private void addPawnCaptures(List<Move> moves, int x, int y, Color color, int enPassantFile) {
+        //white pawns move upwards
+        int ty = color == Color.WHITE ? y - 1 : y + 1;
+        boolean promotion = ty == 0 || ty == BOARD_SIZE - 1;
+        MoveType type = promotion ? MoveType.PROMOTION : MoveType.REGULAR;
+        addCapture(moves, x, y, x - 1, ty, color, type);
+        addCapture(moves, x, y, x + 1, ty, color, type);
+        if (promotion && getPieceAt(x, ty) == null) {
+            moves.add(new Move(this, new Coordinate(x, y), new Coordinate(x, ty), MoveType.PROMOTION));
+        }
+        if (enPassantFile >= 0 && Math.abs(enPassantFile - x) == 1
+                && isPieceAt(enPassantFile, y, PieceType.PAWN, color.opposite())
+                && getPieceAt(enPassantFile, ty) == null
+                && lastMove.getEndY() == y) {
+            moves.add(new Move(this, new Coordinate(x, y), new Coordinate(enPassantFile, ty), MoveType.ENPASSANT));
+        }
+    }
+
+    private void addSlidingCaptures(List<Move> moves, int x, int y, Color color, int fromDirection, int toDirection) {
+        for (int i = fromDirection; i < toDirection; i++) {
+            int tx = x + DIRECTIONS[i][0];
+            int ty = y + DIRECTIONS[i][1];
+            while (tx >= 0 && tx < BOARD_SIZE && ty >= 0 && ty < BOARD_SIZE && getPieceAt(tx, ty) == null) {
+                tx += DIRECTIONS[i][0];
+                ty += DIRECTIONS[i][1];
+            }
+            addCapture(moves, x, y, tx, ty, color, MoveType.REGULAR);
+        }
+    }
+
+    private void addCapture(List<Move> moves, int x, int y, int tx, int ty, Color color, MoveType type) {
+        if (tx < 0 || tx >= BOARD_SIZE || ty < 0 || ty >= BOARD_SIZE) {
+            return;
+        }
+        Piece target = getPieceAt(tx, ty);
+        if (target != null && target.getColor() != color) {
+            moves.add(new Move(this, new Coordinate(x, y), new Coordinate(tx, ty), type));
+        }
+    }
+
     /**
      *
      * @param piece
@@ -384,6 +991,20 @@ public class Board extends Observable {
         return null;
     }
 
+    /**
+     *
+     * @param x column
+     * @param y row
+     * @return piece if present on specified spot otherwise null
+     */
+    public Piece getPieceAt(int x, int y) {
+        Spot spot = spots[y][x];
+        if (spot != null) {
+            return spot.getPiece();
+        }
+        return null;
+    }
+
     /**
      *
      * @param coord
@@ -401,6 +1022,172 @@ public class Board extends Observable {
         return lastMove;
     }
 
+    /**
+     *
+     * @return color of player who makes the next move
+     */
+    public Color getSideToMove() {
+        return sideToMove;
+    }
+
+    public void setSideToMove(Color sideToMove) {
+        long stateBefore = stateKey();
+        this.sideToMove = sideToMove;
+        checkState = CHECK_UNKNOWN;
+        hash ^= stateBefore ^ stateKey();
+    }
+
+    /**
+     * Zobrist hash of position is updated with every change of board. It
+     * covers pieces, side to move, castling rights and en passant column.
+     *
+     * @return 64-bit hash of position
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     *
+     * @return Zobrist hash of position computed from scratch
+     */
+    public long computeHash() {
+        long key = stateKey();
+        for (int i = 0; i < BOARD_SIZE; i++) {
+            for (int j = 0; j < BOARD_SIZE; j++) {
+                Piece piece = getPieceAt(j, i);
+                if (piece != null) {
+                    key ^= Zobrist.piece(piece, j, i);
+                }
+            }
+        }
+        return key;
+    }
+
+    /**
+     * When verification is on, incremental hash is compared with hash
+     * computed from scratch after every move. It is slow, so it is meant
+     * for tests and debugging. Can be also turned on by -Dchess.verifyHash=true
+     *
+     * @param verification
+     */
+    public static void setHashVerification(boolean verification) {
+        hashVerification = verification;
+    }
+
+    private void verifyHash() {
+        if (hashVerification && hash != computeHash()) {
+            throw new IllegalStateException("Incremental hash " + Long.toHexString(hash)
+                    + " differs from computed hash " + Long.toHexString(computeHash()));
+        }
+    }
+
+    private long stateKey() {
+        return Zobrist.state(sideToMove, getCastlingRights(), getEnPassantFile());
+    }
+
+    /**
+     * Castling is still possible for a side when its king and rook have never
+     * moved from their initial spots
+     *
+     * @return combination of WHITE_KINGSIDE, WHITE_QUEENSIDE, BLACK_KINGSIDE
+     * and BLACK_QUEENSIDE flags
+     */
+    public int getCastlingRights() {
+        int rights = 0;
+        if (isUnmoved(4, 7, King.class, Color.WHITE)) {
+            if (isUnmoved(7, 7, Rook.class, Color.WHITE)) {
+                rights |= WHITE_KINGSIDE;
+            }
+            if (isUnmoved(0, 7, Rook.class, Color.WHITE)) {
+                rights |= WHITE_QUEENSIDE;
+            }
+        }
+        if (isUnmoved(4, 0, King.class, Color.BLACK)) {
+            if (isUnmoved(7, 0, Rook.class, Color.BLACK)) {
+                rights |= BLACK_KINGSIDE;
+            }
+            if (isUnmoved(0, 0, Rook.class, Color.BLACK)) {
+                rights |= BLACK_QUEENSIDE;
+            }
+        }
+        return rights;
+    }
+
+    private boolean isUnmoved(int x, int y, Class<? extends Piece> type, Color color) {
+        Spot spot = spots[y][x];
+        if (spot == null || spot.getPiece() == null) {
+            return false;
+        }
+        Piece piece = spot.getPiece();
+        return piece.getClass() == type && piece.getColor() == color && !piece.hasMoved();
+    }
+
+    /**
+     *
+     * @return column of pawn, which can be captured en passant, otherwise -1
+     */
+    public int getEnPassantFile() {
+        if (lastMove == null || !lastMove.isPawnJump()) {
+            return -1;
+        }
+        return lastMove.getEndX();
+    }
+
+    /**
+     * Restores state, which cannot be read from placement of pieces. Kings and
+     * rooks without castling right are marked as moved.
+     *
+     * @param sideToMove
+     * @param castlingRights combination of castling flags
+     * @param enPassantFile column of pawn, which has just jumped, or -1
+     */
+    void setPositionState(Color sideToMove, int castlingRights, int enPassantFile) {
+        this.sideToMove = sideToMove;
+        for (int i = 0; i < BOARD_SIZE; i++) {
+            for (int j = 0; j < BOARD_SIZE; j++) {
+                Piece piece = spots[i][j] == null ? null : spots[i][j].getPiece();
+                if (piece instanceof King || piece instanceof Rook) {
+                    piece.setMoved(true);
+                }
+            }
+        }
+        if ((castlingRights & (WHITE_KINGSIDE | WHITE_QUEENSIDE)) != 0) {
+            setUnmoved(4, 7);
+        }
+        if ((castlingRights & WHITE_KINGSIDE) != 0) {
+            setUnmoved(7, 7);
+        }
+        if ((castlingRights & WHITE_QUEENSIDE) != 0) {
+            setUnmoved(0, 7);
+        }
+        if ((castlingRights & (BLACK_KINGSIDE | BLACK_QUEENSIDE)) != 0) {
+            setUnmoved(4, 0);
+        }
+        if ((castlingRights & BLACK_KINGSIDE) != 0) {
+            setUnmoved(7, 0);
+        }
+        if ((castlingRights & BLACK_QUEENSIDE) != 0) {
+            setUnmoved(0, 0);
+        }
+        lastMove = null;
+        if (enPassantFile >= 0) {
+            if (sideToMove == Color.WHITE) {
+                lastMove = new Move(this, new Coordinate(enPassantFile, 1), new Coordinate(enPassantFile, 3), MoveType.PAWNJUMP);
+            } else {
+                lastMove = new Move(this, new Coordinate(enPassantFile, 6), new Coordinate(enPassantFile, 4), MoveType.PAWNJUMP);
+            }
+        }
+        hash = computeHash();
+    }
+
+    private void setUnmoved(int x, int y) {
+        Piece piece = getPieceAt(new Coordinate(x, y));
+        if (piece != null) {
+            piece.setMoved(false);
+        }
+    }
+
     /**
      *
      * @param move 
@@ -413,7 +1200,7 @@ public class Board extends Observable {
             Move move1 = new Move(this, move.getStart(), new Coordinate(move.getEndX() - 1, move.getEndY()));
             Move move2 = new Move(this, move.getStart(), new Coordinate(move.getEndX(), move.getEndY()));
             if (!getSpot(move1.getEnd()).isOccupied() && !getSpot(move2.getEnd()).isOccupied()) {
-                if (!isInCheckAfterThisMove(move1, color) && !isInCheckAfterThisMove(move2, color)) {
+                if (isCastlingPathSafe(move.getStart(), move1.getEnd(), move2.getEnd(), color)) {
                     return true;
                 }
             }
@@ -424,7 +1211,7 @@ public class Board extends Observable {
             Move move2 = new Move(this, move.getStart(), new Coordinate(move.getEndX(), move.getEndY()));
             Move move3 = new Move(this, move.getStart(), new Coordinate(move.getEndX() + 1, move.getEndY()));
             if (!getSpot(move1.getEnd()).isOccupied() && !getSpot(move2.getEnd()).isOccupied() && !getSpot(move3.getEnd()).isOccupied()) {
-                if (!isInCheckAfterThisMove(move1, color) && !isInCheckAfterThisMove(move2, color)) {
+                if (isCastlingPathSafe(move.getStart(), move3.getEnd(), move2.getEnd(), color)) {
                     return true;
                 }
             }
@@ -434,7 +1221,7 @@ public class Board extends Observable {
             Move move1 = new Move(this, move.getStart(), new Coordinate(move.getEndX() - 1, move.getEndY()));
             Move move2 = new Move(this, move.getStart(), new Coordinate(move.getEndX(), move.getEndY()));
             if (!getSpot(move1.getEnd()).isOccupied() && !getSpot(move2.getEnd()).isOccupied()) {
-                if (!isInCheckAfterThisMove(move1, color) && !isInCheckAfterThisMove(move2, color)) {
+                if (isCastlingPathSafe(move.getStart(), move1.getEnd(), move2.getEnd(), color)) {
                     return true;
                 }
             }
@@ -445,7 +1232,7 @@ public class Board extends Observable {
             Move move2 = new Move(this, move.getStart(), new Coordinate(move.getEndX(), move.getEndY()));
             Move move3 = new Move(this, move.getStart(), new Coordinate(move.getEndX() + 1, move.getEndY()));
             if (!getSpot(move1.getEnd()).isOccupied() && !getSpot(move2.getEnd()).isOccupied() && !getSpot(move3.getEnd()).isOccupied()) {
-                if (!isInCheckAfterThisMove(move1, color) && !isInCheckAfterThisMove(move2, color)) {
+                if (isCastlingPathSafe(move.getStart(), move3.getEnd(), move2.getEnd(), color)) {
                     return true;
                 }
             }
@@ -453,6 +1240,14 @@ public class Board extends Observable {
         return false;
     }
 
+    /**
+     * King must not be in check and must not pass or land on attacked spot
+     */
+    private boolean isCastlingPathSafe(Coordinate start, Coordinate passed, Coordinate end, Color color) {
+        Color attacker = color.opposite();
+        return !isAttacked(start, attacker) && !isAttacked(passed, attacker) && !isAttacked(end, attacker);
+    }
+
     private void setupPieces() {
         spots[0][0] = new Spot(new Rook(Color.BLACK));
         spots[0][1] = new Spot(new Knight(Color.BLACK));
@@ -492,4 +1287,29 @@ public class Board extends Observable {
 
     }
 
+    /**
+     * State needed to take back one move
+     */
+    private static class Undo {
+
+        private long hash;
+        private Move move;
+        private Piece piece;
+        private boolean moved;
+        private Piece captured;
+        private int capturedX;
+        private int capturedY;
+        private Move lastMove;
+        private Color sideToMove;
+        private int checkState;
+
+        private void clear() {
+            move = null;
+            piece = null;
+            captured = null;
+            lastMove = null;
+        }
+
+    }
+
 }
@@ -9,6 +9,7 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStreamReader;
+import model.engine.Strength;
 import model.pieces.*;
 import org.json.JSONArray;
 import org.json.JSONObject;
@@ -80,7 +81,11 @@ public class ChessLoader {
         if (type.equals("Human")) {
             player = new HumanPlayer(name, color);
         } else {
-            player = new ComputerPlayer(name, color);
+            //games saved before strength levels were played at maximum
+            Strength strength = playerJSON.optEnum(Strength.class, "strength", Strength.MAXIMUM);
+            ComputerPlayer computer = new ComputerPlayer(name, color, strength);
+            computer.setMonteCarlo(playerJSON.optBoolean("monteCarlo"));
+            player = computer;
         }
         player.setTime(new Duration(playerJSON.getInt("time")));
 
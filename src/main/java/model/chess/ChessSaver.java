@@ -64,6 +64,10 @@ public class ChessSaver {
         }
 
         playerJSON.put("type", type);
+        if (player instanceof ComputerPlayer) {
+            playerJSON.put("strength", ((ComputerPlayer) player).getStrength());
+            playerJSON.put("monteCarlo", ((ComputerPlayer) player).isMonteCarlo());
+        }
 
         return playerJSON;
     }
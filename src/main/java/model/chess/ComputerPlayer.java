@@ -5,11 +5,20 @@
  */
 package model.chess;
 
-import java.util.List;
-import java.util.Random;
-import java.util.logging.Level;
-import java.util.logging.Logger;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import javafx.application.Platform;
+import model.engine.DefaultEvaluation;
+import model.engine.Evaluation;
+import model.engine.MonteCarloSearch;
+import model.engine.ParallelSearch;
+import model.engine.SearchLimits;
+import model.engine.SearchListener;
+import model.engine.SearchResult;
+import model.engine.Strength;
+import model.engine.TranspositionTable;
 
 /**
  *
@@ -17,17 +26,186 @@ import javafx.application.Platform;
  */
 public class ComputerPlayer extends Player {
 
+    /**
+     * Size of shared transposition table in megabytes, can be set by system
+     * property chess.hash
+     */
+    public static final long HASH_SIZE_MB = Long.getLong("chess.hash", TranspositionTable.DEFAULT_SIZE_MB);
+
+    /**
+     * Whether computer players search on opponent's time, can be set by
+     * system property chess.ponder
+     */
+    public static final boolean PONDER = Boolean.parseBoolean(System.getProperty("chess.ponder", "true"));
+
+    /**
+     * Minimal time between opponent's move and move of weaker levels in
+     * milliseconds, so that their instant moves can be seen
+     */
+    public static final long DISPLAY_DELAY = 800;
+
+    private static TranspositionTable sharedTable;
+
+    //moves waiting for display delay, one thread serves all players
+    private static final ScheduledExecutorService DELAYED_MOVES = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "delayed-moves");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private final Strength strength;
+
+    private Evaluation evaluation = new DefaultEvaluation();
+    //time of search is given by the clock, these are additional limits
+    private SearchLimits limits = new SearchLimits();
+    private int threads = ParallelSearch.DEFAULT_THREADS;
+    private SearchListener listener;
+    //minimal time of move shown to user, does not change the search
+    private long moveDelay;
+    //kept between moves, positions searched before are usually reached again
+    private final TranspositionTable table;
+    //used instead of alpha-beta when set, its tree is kept between moves
+    private MonteCarloSearch monteCarlo;
+
+    //search of position after the expected reply, runs on opponent's time
+    private boolean pondering = PONDER;
+    private ParallelSearch ponderSearch;
+    private Thread ponderThread;
+    private Move ponderMove;
+    private volatile SearchResult ponderResult;
+
+    //search of the current move, all searches end when the player is stopped
+    private boolean stopped;
+    private ParallelSearch moveSearch;
+    private Thread moveThread;
+
+    /**
+     * Player searching with the transposition table shared by all computer
+     * players
+     *
+     * @param name
+     * @param color
+     */
     public ComputerPlayer(String name, Color color) {
+        this(name, color, getSharedTable());
+    }
+
+    /**
+     *
+     * @param name
+     * @param color
+     * @param table transposition table used by this player
+     */
+    public ComputerPlayer(String name, Color color, TranspositionTable table) {
         super(name, color);
+        this.table = table;
+        this.strength = Strength.MAXIMUM;
     }
 
-    private Move generateMove(Board board) {
-        List<Move> legalMoves = board.getAllLegalMovesByColor(this.color);
-        if(legalMoves.isEmpty()){
-            return null;
+    /**
+     * Player of given strength. Limited levels search in one thread with
+     * their own small table, because their evaluation differs, do not ponder
+     * and show their moves after display delay.
+     *
+     * @param name
+     * @param color
+     * @param strength
+     */
+    public ComputerPlayer(String name, Color color, Strength strength) {
+        super(name, color);
+        this.strength = strength;
+        if (strength.isLimited()) {
+            table = new TranspositionTable(Strength.LIMITED_TABLE_SIZE_MB);
+            evaluation = strength.createEvaluation(System.nanoTime());
+            limits = strength.getLimits();
+            threads = 1;
+            pondering = false;
+            moveDelay = DISPLAY_DELAY;
+        } else {
+            table = getSharedTable();
+        }
+    }
+
+    /**
+     * Table is allocated once and cleared in place between games, because
+     * off-heap memory of big tables is released only by garbage collector.
+     *
+     * @return transposition table shared by computer players
+     */
+    public static synchronized TranspositionTable getSharedTable() {
+        if (sharedTable == null) {
+            sharedTable = new TranspositionTable(HASH_SIZE_MB);
+        }
+        return sharedTable;
+    }
+
+    /**
+     * Forgets positions of previous game
+     */
+    public static void newGame() {
+        getSharedTable().clear();
+    }
+
+    /**
+     * Chooses move for side to move on board within the limits. Search runs
+     * on a copy of board, so the board can be drawn meanwhile.
+     *
+     * @param board
+     * @param limits
+     * @return chosen move and statistics of search
+     */
+    public SearchResult search(Board board, SearchLimits limits) {
+        if (monteCarlo != null) {
+            return toBoard(monteCarlo.search(new Board(board), limits), board);
+        }
+        ParallelSearch search = new ParallelSearch(evaluation, table, threads);
+        search.setListener(listener);
+        synchronized (this) {
+            if (stopped) {
+                search.stop();
+            }
+            moveSearch = search;
+        }
+        try {
+            return toBoard(search.search(new Board(board), limits), board);
+        } finally {
+            synchronized (this) {
+                moveSearch = null;
+            }
         }
-        Random random = new Random();
-        return legalMoves.get(random.nextInt(legalMoves.size()));
+    }
+
+    /**
+     *
+     * @return result with move of board instead of the searched copy
+     */
+    private static SearchResult toBoard(SearchResult result, Board board) {
+        if (result.getMove() == null) {
+            return result;
+        }
+        Move move = new Move(board, result.getMove().getStart(), result.getMove().getEnd());
+        SearchResult boardResult = new SearchResult(move, result.getScore(), result.getDepth(), result.getNodes(), result.getTime());
+        boardResult.setStats(result.getStats());
+        boardResult.setPrincipalVariation(result.getPrincipalVariation(), result.getPrincipalVariationSan());
+        boardResult.setLines(result.getLines());
+        return boardResult;
+    }
+
+    private SearchLimits getMoveLimits() {
+        SearchLimits moveLimits = new SearchLimits(limits);
+        moveLimits.setRemainingTime(Math.max(1, time.getSeconds() * 1000L));
+        return moveLimits;
+    }
+
+    private SearchResult generateMove(Board board) {
+        SearchResult result = finishPondering(board);
+        if (result != null && result.getMove() != null) {
+            return toBoard(result, board);
+        }
+        return search(board, getMoveLimits());
     }
 
     @Override
@@ -35,21 +213,270 @@ public class ComputerPlayer extends Player {
         Thread t = new Thread(new Runnable() {
             @Override
             public void run() {
-                try {
-                    Random r = new Random();
-                    Thread.sleep(r.nextInt(2000)+1000);
-                } catch (InterruptedException ex) {
-                    Logger.getLogger(ComputerPlayer.class.getName()).log(Level.SEVERE, null, ex);
+                long start = System.currentTimeMillis();
+                final SearchResult result = generateMove(game.getBoard());
+                if (result.getMove() == null || isStopped()) {
+                    return;
                 }
-                Platform.runLater(new Runnable() {
+                final Runnable showMove = new Runnable() {
                     @Override
                     public void run() {
-                        game.getBoard().moveTo(generateMove(game.getBoard()));
+                        //game may end during search or display delay
+                        if (isStopped()) {
+                            return;
+                        }
+                        game.getBoard().moveTo(result.getMove());
+                        //another computer player would share the processor
+                        if (game.getPlayerOnMove() instanceof HumanPlayer
+                                && !game.isCheckmate() && !game.isStalemate() && !game.isOutOfTime()) {
+                            startPondering(game.getBoard(), result);
+                        }
                     }
-                });
+                };
+                //no thread sleeps during the delay
+                long delay = moveDelay - (System.currentTimeMillis() - start);
+                if (delay > 0) {
+                    DELAYED_MOVES.schedule(new Runnable() {
+                        @Override
+                        public void run() {
+                            Platform.runLater(showMove);
+                        }
+                    }, delay, TimeUnit.MILLISECONDS);
+                } else {
+                    Platform.runLater(showMove);
+                }
             }
-        });
+        }, "computer-move");
+        t.setDaemon(true);
+        synchronized (this) {
+            if (stopped) {
+                return;
+            }
+            moveThread = t;
+        }
         t.start();
     }
 
+    /**
+     * Stops search of move and pondering and waits for their threads, which
+     * takes at most a few milliseconds. Move being searched or waiting for
+     * display delay is not played. Stopped player does not play anymore.
+     */
+    @Override
+    public void stop() {
+        Thread thread;
+        synchronized (this) {
+            stopped = true;
+            if (moveSearch != null) {
+                moveSearch.stop();
+            }
+            if (monteCarlo != null) {
+                monteCarlo.stop();
+            }
+            stopPondering();
+            thread = moveThread;
+            moveThread = null;
+        }
+        //the thread takes the lock at the end of search
+        if (thread != null && thread != Thread.currentThread()) {
+            join(thread);
+        }
+    }
+
+    public synchronized boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * Starts search of position after the second move of principal variation,
+     * which is the expected reply of opponent. Must be called on the thread
+     * owning the board, right after the move of this player.
+     *
+     * @param board position with opponent on move
+     * @param result result of search of the move just played
+     */
+    public synchronized void startPondering(Board board, SearchResult result) {
+        stopPondering();
+        if (!pondering || stopped || monteCarlo != null || result.getPrincipalVariation().size() < 2) {
+            return;
+        }
+        Move expected = result.getPrincipalVariation().get(1);
+        final Board ponderBoard = new Board(board);
+        Move reply = null;
+        for (Move move : ponderBoard.getAllLegalMovesByColor(ponderBoard.getSideToMove())) {
+            if (move.equals(expected)) {
+                reply = move;
+                break;
+            }
+        }
+        if (reply == null) {
+            return;
+        }
+        ponderBoard.makeMove(reply);
+        final SearchLimits ponderLimits = getMoveLimits();
+        ponderLimits.setPonder(true);
+        final ParallelSearch search = new ParallelSearch(evaluation, table, threads);
+        ponderResult = null;
+        ponderThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                ponderResult = search.search(ponderBoard, ponderLimits);
+            }
+        }, "ponder");
+        ponderThread.setDaemon(true);
+        ponderSearch = search;
+        ponderMove = reply;
+        ponderThread.start();
+    }
+
+    /**
+     * Ends pondering after opponent's move. On ponder hit the search goes on
+     * within time of this player and its result is returned, otherwise it is
+     * stopped.
+     *
+     * @param board position after opponent's move
+     * @return result of ponder search, null if opponent played another move
+     */
+    private SearchResult finishPondering(Board board) {
+        ParallelSearch search;
+        Thread thread;
+        Move expected;
+        boolean hit;
+        synchronized (this) {
+            search = ponderSearch;
+            thread = ponderThread;
+            expected = ponderMove;
+            ponderSearch = null;
+            ponderThread = null;
+            ponderMove = null;
+            if (search == null) {
+                return null;
+            }
+            hit = expected.equals(board.getLastMove());
+            if (hit) {
+                //continues as search of move, stop must reach it
+                search.ponderHit();
+                moveSearch = search;
+            } else {
+                search.stop();
+            }
+        }
+        join(thread);
+        synchronized (this) {
+            moveSearch = null;
+        }
+        return hit ? ponderResult : null;
+    }
+
+    /**
+     * Stops search on opponent's time and waits for its thread
+     */
+    public synchronized void stopPondering() {
+        if (ponderSearch != null) {
+            ponderSearch.stop();
+            join(ponderThread);
+            ponderSearch = null;
+            ponderThread = null;
+            ponderMove = null;
+        }
+    }
+
+    private static void join(Thread thread) {
+        boolean interrupted = false;
+        while (thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (InterruptedException ex) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public Strength getStrength() {
+        return strength;
+    }
+
+    public long getMoveDelay() {
+        return moveDelay;
+    }
+
+    /**
+     *
+     * @param moveDelay minimal time between start of search and display of
+     * the move in milliseconds
+     */
+    public void setMoveDelay(long moveDelay) {
+        this.moveDelay = moveDelay;
+    }
+
+    public boolean isMonteCarlo() {
+        return monteCarlo != null;
+    }
+
+    /**
+     * Switches between alpha-beta and Monte Carlo tree search, which does
+     * not ponder. Tree is allocated with evaluation and threads set so far.
+     *
+     * @param monteCarlo true if moves are chosen by Monte Carlo tree search
+     */
+    public void setMonteCarlo(boolean monteCarlo) {
+        this.monteCarlo = monteCarlo ? new MonteCarloSearch(evaluation, threads) : null;
+    }
+
+    public TranspositionTable getTranspositionTable() {
+        return table;
+    }
+
+    public Evaluation getEvaluation() {
+        return evaluation;
+    }
+
+    public void setEvaluation(Evaluation evaluation) {
+        this.evaluation = evaluation;
+    }
+
+    public SearchLimits getSearchLimits() {
+        return limits;
+    }
+
+    public void setSearchLimits(SearchLimits limits) {
+        this.limits = limits;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public boolean isPondering() {
+        return pondering;
+    }
+
+    /**
+     *
+     * @param pondering true if this player searches on opponent's time
+     */
+    public void setPondering(boolean pondering) {
+        this.pondering = pondering;
+    }
+
+    /**
+     *
+     * @param threads number of search threads
+     */
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     *
+     * @param listener notified after each finished iteration of search, moves
+     * of its results belong to a copy of board
+     */
+    public void setListener(SearchListener listener) {
+        this.listener = listener;
+    }
+
 }
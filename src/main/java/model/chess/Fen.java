@@ -0,0 +1,165 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package model.chess;
+
+import model.pieces.Piece;
+import model.pieces.PieceType;
+
+/**
+ * Reads and writes positions in Forsyth-Edwards Notation. Move counters are
+ * not kept by board, so they are ignored when reading and written as "0 1".
+ *
+ * @author ottovodvarka
+ */
+public class Fen {
+
+    /**
+     * Standard setup
+     */
+    public static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    /**
+     *
+     * @param fen position in FEN, move counters may be omitted
+     * @return new board with that position
+     * @throws IllegalArgumentException when FEN is not valid
+     */
+    public static Board parse(String fen) {
+        String[] fields = fen.trim().split("\\s+");
+        if (fields.length < 4) {
+            throw new IllegalArgumentException("FEN must have at least 4 fields: " + fen);
+        }
+        Spot[][] spots = new Spot[Board.BOARD_SIZE][Board.BOARD_SIZE];
+        String[] rows = fields[0].split("/");
+        if (rows.length != Board.BOARD_SIZE) {
+            throw new IllegalArgumentException("FEN must have 8 rows: " + fen);
+        }
+        for (int y = 0; y < Board.BOARD_SIZE; y++) {
+            int x = 0;
+            for (char symbol : rows[y].toCharArray()) {
+                if (symbol >= '1' && symbol <= '8') {
+                    x += symbol - '0';
+                    continue;
+                }
+                PieceType type = PieceType.fromSymbol(symbol);
+                if (type == null || x >= Board.BOARD_SIZE) {
+                    throw new IllegalArgumentException("Invalid row " + rows[y] + " in FEN: " + fen);
+                }
+                Color color = Character.isUpperCase(symbol) ? Color.WHITE : Color.BLACK;
+                spots[y][x++] = new Spot(type.createPiece(color));
+            }
+            if (x != Board.BOARD_SIZE) {
+                throw new IllegalArgumentException("Invalid row " + rows[y] + " in FEN: " + fen);
+            }
+        }
+
+        Color sideToMove;
+        if (fields[1].equals("w")) {
+            sideToMove = Color.WHITE;
+        } else if (fields[1].equals("b")) {
+            sideToMove = Color.BLACK;
+        } else {
+            throw new IllegalArgumentException("Invalid side to move in FEN: " + fen);
+        }
+
+        int castlingRights = 0;
+        if (!fields[2].equals("-")) {
+            for (char symbol : fields[2].toCharArray()) {
+                switch (symbol) {
+                    case 'K':
+                        castlingRights |= Board.WHITE_KINGSIDE;
+                        break;
+                    case 'Q':
+                        castlingRights |= Board.WHITE_QUEENSIDE;
+                        break;
+                    case 'k':
+                        castlingRights |= Board.BLACK_KINGSIDE;
+                        break;
+                    case 'q':
+                        castlingRights |= Board.BLACK_QUEENSIDE;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Invalid castling rights in FEN: " + fen);
+                }
+            }
+        }
+
+        int enPassantFile = -1;
+        if (!fields[3].equals("-")) {
+            enPassantFile = fields[3].charAt(0) - 'a';
+            if (fields[3].length() != 2 || enPassantFile < 0 || enPassantFile >= Board.BOARD_SIZE) {
+                throw new IllegalArgumentException("Invalid en passant square in FEN: " + fen);
+            }
+        }
+
+        Board board = new Board(spots);
+        if (board.findKing(Color.WHITE) == null || board.findKing(Color.BLACK) == null) {
+            throw new IllegalArgumentException("Both kings must be on board: " + fen);
+        }
+        board.setPositionState(sideToMove, castlingRights, enPassantFile);
+        return board;
+    }
+
+    /**
+     *
+     * @param board
+     * @return position in FEN
+     */
+    public static String toFen(Board board) {
+        StringBuilder fen = new StringBuilder();
+        for (int y = 0; y < Board.BOARD_SIZE; y++) {
+            int empty = 0;
+            for (int x = 0; x < Board.BOARD_SIZE; x++) {
+                Piece piece = board.getPieceAt(new Coordinate(x, y));
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append(empty);
+                    empty = 0;
+                }
+                char symbol = piece.getType().getSymbol();
+                fen.append(piece.getColor() == Color.WHITE ? symbol : Character.toLowerCase(symbol));
+            }
+            if (empty > 0) {
+                fen.append(empty);
+            }
+            if (y < Board.BOARD_SIZE - 1) {
+                fen.append('/');
+            }
+        }
+        fen.append(board.getSideToMove() == Color.WHITE ? " w " : " b ");
+
+        int rights = board.getCastlingRights();
+        if (rights == 0) {
+            fen.append('-');
+        }
+        if ((rights & Board.WHITE_KINGSIDE) != 0) {
+            fen.append('K');
+        }
+        if ((rights & Board.WHITE_QUEENSIDE) != 0) {
+            fen.append('Q');
+        }
+        if ((rights & Board.BLACK_KINGSIDE) != 0) {
+            fen.append('k');
+        }
+        if ((rights & Board.BLACK_QUEENSIDE) != 0) {
+            fen.append('q');
+        }
+
+        int enPassantFile = board.getEnPassantFile();
+        if (enPassantFile < 0) {
+            fen.append(" -");
+        } else {
+            fen.append(' ').append((char) ('a' + enPassantFile));
+            fen.append(board.getSideToMove() == Color.WHITE ? '6' : '3');
+        }
+        fen.append(" 0 1");
+        return fen.toString();
+    }
+
+}
@@ -34,6 +34,7 @@ public class Game extends Observable implements Observer {
     private boolean checkmate;
     private boolean stalemate;
     private boolean outOfTime;
+    private boolean stopped;
 
     /**
      *
@@ -50,7 +51,11 @@ public class Game extends Observable implements Observer {
         } else {
             playerOnMove = player2;
         }
+        board.setSideToMove(playerOnMove.getColor());
         board.addObserver(this);
+        if (player1 instanceof ComputerPlayer || player2 instanceof ComputerPlayer) {
+            ComputerPlayer.newGame();
+        }
     }
 
     /**
@@ -114,6 +119,9 @@ public class Game extends Observable implements Observer {
 
     public void setOutOfTime(boolean outOfTime) {
         this.outOfTime = outOfTime;
+        if (outOfTime) {
+            stop();
+        }
         setChanged();
         notifyObservers();
     }
@@ -122,6 +130,24 @@ public class Game extends Observable implements Observer {
         return outOfTime;
     }
 
+    /**
+     * Ends the game, searches of computer players are stopped and no more
+     * moves are played. Must be called, when the game is left unfinished.
+     */
+    public void stop() {
+        stopped = true;
+        player1.stop();
+        player2.stop();
+    }
+
+    /**
+     *
+     * @return true if the game ended by its rules or was stopped
+     */
+    public boolean isOver() {
+        return stopped || checkmate || stalemate || outOfTime;
+    }
+
     public Piece getSelectedPiece() {
         return selectedPiece;
     }
@@ -185,6 +211,7 @@ public class Game extends Observable implements Observer {
 
     public void setPlayerOnMove(Player playerOnMove) {
         this.playerOnMove = playerOnMove;
+        board.setSideToMove(playerOnMove.getColor());
     }
 
     public Player getWaitingPlayer() {
@@ -212,7 +239,11 @@ public class Game extends Observable implements Observer {
         switchPlayers();
         setChanged();
         notifyObservers();
-        playerOnMove.play(this);
+        if (isOver()) {
+            stop();
+        } else {
+            playerOnMove.play(this);
+        }
     }
 
     /**
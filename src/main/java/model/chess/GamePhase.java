@@ -0,0 +1,63 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package model.chess;
+
+import model.pieces.Piece;
+import model.pieces.PieceType;
+
+/**
+ *
+ * @author ottovodvarka
+ */
+public enum GamePhase {
+
+    OPENING, MIDDLEGAME, ENDGAME;
+
+    /**
+     * Material of pieces other than pawns and kings at the start of the game
+     */
+    public static final int INITIAL_MATERIAL = 2 * (2 * PieceType.KNIGHT.getValue()
+            + 2 * PieceType.BISHOP.getValue() + 2 * PieceType.ROOK.getValue()
+            + PieceType.QUEEN.getValue());
+
+    private static final int OPENING_MATERIAL = INITIAL_MATERIAL - 2 * PieceType.KNIGHT.getValue();
+    private static final int ENDGAME_MATERIAL = 2 * (PieceType.ROOK.getValue() + PieceType.BISHOP.getValue());
+
+    /**
+     * Phase is decided by material of pieces other than pawns and kings
+     *
+     * @param board
+     * @return phase of game on board
+     */
+    public static GamePhase of(Board board) {
+        int material = getMaterial(board);
+        if (material >= OPENING_MATERIAL) {
+            return OPENING;
+        }
+        if (material <= ENDGAME_MATERIAL) {
+            return ENDGAME;
+        }
+        return MIDDLEGAME;
+    }
+
+    /**
+     *
+     * @param board
+     * @return material of both players without pawns and kings
+     */
+    public static int getMaterial(Board board) {
+        int material = 0;
+        for (Color color : Color.values()) {
+            for (Piece piece : board.getAllPiecesbyColor(color)) {
+                if (piece.getType() != PieceType.PAWN) {
+                    material += piece.getType().getValue();
+                }
+            }
+        }
+        return material;
+    }
+
+}
@@ -5,11 +5,10 @@
  */
 package model.chess;
 
-import model.pieces.King;
 import model.pieces.Piece;
 import model.pieces.Rook;
 import java.util.Objects;
-import model.pieces.Pawn;
+import model.pieces.PieceType;
 
 /**
  *
@@ -50,6 +49,30 @@ public class Move {
         setMoveType(board, piece);
     }
 
+    /**
+     * Move with already known type, used when restoring saved positions
+     *
+     * @param board
+     * @param start
+     * @param end
+     * @param moveType
+     */
+    Move(Board board, Coordinate start, Coordinate end, MoveType moveType) {
+        this.board = board;
+        this.start = start;
+        this.end = end;
+        this.moveType = moveType;
+    }
+
+    /**
+     *
+     * @param board board with the same position
+     * @return the same move on another board
+     */
+    Move copy(Board board) {
+        return new Move(board, new Coordinate(getStartX(), getStartY()), new Coordinate(getEndX(), getEndY()), moveType);
+    }
+
     public int getStartX() {
         return start.getX();
     }
@@ -111,19 +134,19 @@ public class Move {
 
     private void setMoveType(Board board, Piece piece) {
         moveType = MoveType.REGULAR;
-        if(piece == null) return;
-        setPawnJumpIfTrue(board);
-        setCastlingIfTrue(board, piece.getColor());
-        setEnpassantIfTrue(board, piece.getColor());
-        setPromotionIfTrue(board, piece.getColor());
-    }
-
-    private void setPawnJumpIfTrue(Board board) {
-        Piece pawn = board.getPieceAt(this.getStart());
-        if (pawn == null || !(pawn instanceof Pawn)) {
+        if (piece == null) {
             return;
         }
+        if (piece.getType() == PieceType.PAWN) {
+            setPawnJumpIfTrue();
+            setEnpassantIfTrue(board, piece.getColor());
+            setPromotionIfTrue(piece.getColor());
+        } else if (piece.getType() == PieceType.KING) {
+            setCastlingIfTrue(board, piece);
+        }
+    }
 
+    private void setPawnJumpIfTrue() {
         int xDifference = Math.abs(getStartX() - getEndX());
         int yDifference = Math.abs(getStartY() - getEndY());
         if (yDifference == 2 && xDifference == 0) {
@@ -131,103 +154,58 @@ public class Move {
         }
     }
 
-    private void setCastlingIfTrue(Board board, Color color) {
-        Piece king = board.getPieceAt(this.getStart());
-        if (king == null || !(king instanceof King)) {
+    private void setCastlingIfTrue(Board board, Piece king) {
+        if (king.hasMoved()) {
             return;
         }
-        if (king.hasMoved()) {
+        int row = king.getColor() == Color.WHITE ? Board.BOARD_SIZE - 1 : 0;
+        if (getStartX() != 4 || getStartY() != row || getEndY() != row) {
             return;
         }
-        if (color == Color.WHITE) {
-            if (this.getStart().equals(new Coordinate(4, 7))) {
-
-                if (this.getEnd().equals(new Coordinate(2, 7))) {
-                    Piece rook = board.getPieceAt(new Coordinate(0, 7));
-                    if (rook != null && rook instanceof Rook && !rook.hasMoved()) {
-                        moveType = MoveType.CASTLING;
-                        return;
-                    }
-                }
-
-                if (this.getEnd().equals(new Coordinate(6, 7))) {
-                    Piece rook = board.getPieceAt(new Coordinate(0, 7));
-                    if (rook != null && rook instanceof Rook && !rook.hasMoved()) {
-                        moveType = MoveType.CASTLING;
-                        return;
-                    }
-                }
-
-            }
+        int rookX;
+        if (getEndX() == 2) {
+            rookX = 0;
+        } else if (getEndX() == 6) {
+            rookX = Board.BOARD_SIZE - 1;
         } else {
-
-            if (this.getStart().equals(new Coordinate(4, 0))) {
-
-                if (this.getEnd().equals(new Coordinate(2, 0))) {
-                    Piece rook = board.getPieceAt(new Coordinate(0, 0));
-                    if (rook != null && rook instanceof Rook && !rook.hasMoved()) {
-                        moveType = MoveType.CASTLING;
-                        return;
-                    }
-                }
-
-                if (this.getEnd().equals(new Coordinate(6, 0))) {
-                    Piece rook = board.getPieceAt(new Coordinate(7, 0));
-                    if (rook != null && rook instanceof Rook && !rook.hasMoved()) {
-                        moveType = MoveType.CASTLING;
-                        return;
-                    }
-                }
-
-            }
+            return;
+        }
+        Piece rook = board.getPieceAt(rookX, row);
+        if (rook != null && rook instanceof Rook && !rook.hasMoved()) {
+            moveType = MoveType.CASTLING;
         }
     }
 
     private void setEnpassantIfTrue(Board board, Color color) {
-        Piece pawn = board.getPieceAt(this.getStart());
-        if (pawn == null || !(pawn instanceof Pawn)) {
+        Move lastMove = board.getLastMove();
+        if (lastMove == null || !lastMove.isPawnJump()) {
             return;
         }
-        if(board.getLastMove() == null){
-            return;
-        }
-        if (!board.getLastMove().isPawnJump()) {
-            return;
-        }
-        if (getEndX() != board.getLastMove().getEndX()) {
+        if (getEndX() != lastMove.getEndX()) {
             return;
         }
 
         if (color == Color.WHITE) {
-            if (getEndY() + 1 == board.getLastMove().getEndY()) {
+            if (getEndY() + 1 == lastMove.getEndY()) {
                 moveType = MoveType.ENPASSANT;
-                return;
             }
         } else {
-            if (getEndY() - 1 == board.getLastMove().getEndY()) {
+            if (getEndY() - 1 == lastMove.getEndY()) {
                 moveType = MoveType.ENPASSANT;
-                return;
             }
         }
     }
 
-    private void setPromotionIfTrue(Board board, Color color) {
-        Piece pawn = board.getPieceAt(this.getStart());
-        if (pawn == null || !(pawn instanceof Pawn)) {
-            return;
-        }
+    private void setPromotionIfTrue(Color color) {
         if (color == Color.WHITE) {
             if (getEndY() == 0) {
                 moveType = MoveType.PROMOTION;
-                return;
             }
         } else {
-            if (getEndY() == Board.BOARD_SIZE-1) {
+            if (getEndY() == Board.BOARD_SIZE - 1) {
                 moveType = MoveType.PROMOTION;
-                return;
             }
         }
-
     }
 
     /**
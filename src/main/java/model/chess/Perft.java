@@ -0,0 +1,57 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package model.chess;
+
+import java.util.List;
+
+/**
+ * Counts leaf nodes of the tree of legal moves, used to verify and measure
+ * move generation
+ *
+ * @author ottovodvarka
+ */
+public class Perft {
+
+    /**
+     *
+     * @param board position, which is left unchanged
+     * @param depth number of plies
+     * @return number of positions reachable in exactly depth plies
+     */
+    public static long perft(Board board, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        List<Move> moves = board.getAllLegalMovesByColor(board.getSideToMove());
+        if (depth == 1) {
+            return moves.size();
+        }
+        long nodes = 0;
+        for (Move move : moves) {
+            board.makeMove(move);
+            nodes += perft(board, depth - 1);
+            board.undoMove();
+        }
+        return nodes;
+    }
+
+    /**
+     * Usage: Perft [depth]
+     *
+     * @param args the command line arguments
+     */
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        Board board = new Board();
+        for (int i = 1; i <= depth; i++) {
+            long startTime = System.nanoTime();
+            long nodes = perft(board, i);
+            double seconds = (System.nanoTime() - startTime) / 1e9;
+            System.out.printf("perft(%d) = %d  %.2f s  %.0f nodes/s%n", i, nodes, seconds, nodes / seconds);
+        }
+    }
+
+}
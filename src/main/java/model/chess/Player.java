@@ -62,5 +62,12 @@ public abstract class Player extends Observable{
      * @param game
      */
     public abstract void play(Game game);
+
+    /**
+     * Ends all work of player, called when the game ends. Human player has
+     * nothing to stop.
+     */
+    public void stop() {
+    }
     
 }
@@ -0,0 +1,170 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package model.chess;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import model.pieces.Piece;
+import model.pieces.PieceType;
+
+/**
+ * Compact binary file of positions. Each position is stored as occupancy of
+ * spots (8 bytes), one nibble per piece, byte with side to move and castling
+ * rights and byte with en passant column, so usually less than 30 bytes.
+ *
+ * @author ottovodvarka
+ */
+public class PositionFile {
+
+    private static final int MAGIC = 0x43504F53;
+    private static final int VERSION = 1;
+
+    private static final int SPOTS = Board.BOARD_SIZE * Board.BOARD_SIZE;
+
+    /**
+     * Writes positions to file
+     */
+    public static class Writer implements Closeable {
+
+        private final DataOutputStream out;
+        private final byte[] nibbles = new byte[SPOTS];
+        private long count;
+
+        /**
+         *
+         * @param file file to be created
+         * @throws IOException
+         */
+        public Writer(File file) throws IOException {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+        }
+
+        /**
+         *
+         * @param board position to be written
+         * @throws IOException
+         */
+        public void write(Board board) throws IOException {
+            long occupancy = 0;
+            int pieces = 0;
+            for (int square = 0; square < SPOTS; square++) {
+                Piece piece = board.getPieceAt(new Coordinate(square % Board.BOARD_SIZE, square / Board.BOARD_SIZE));
+                if (piece != null) {
+                    occupancy |= 1L << square;
+                    nibbles[pieces++] = (byte) encode(piece);
+                }
+            }
+            out.writeLong(occupancy);
+            for (int i = 0; i < pieces; i += 2) {
+                int high = i + 1 < pieces ? nibbles[i + 1] : 0;
+                out.writeByte(high << 4 | nibbles[i]);
+            }
+            int flags = board.getSideToMove() == Color.BLACK ? 1 : 0;
+            out.writeByte(flags | board.getCastlingRights() << 1);
+            out.writeByte(board.getEnPassantFile());
+            count++;
+        }
+
+        /**
+         *
+         * @return number of written positions
+         */
+        public long getCount() {
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+
+    }
+
+    /**
+     * Reads positions from file
+     */
+    public static class Reader implements Closeable {
+
+        private final DataInputStream in;
+
+        /**
+         *
+         * @param file file with positions
+         * @throws IOException when file is not a position file
+         */
+        public Reader(File file) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16));
+            if (in.readInt() != MAGIC || in.readShort() != VERSION) {
+                in.close();
+                throw new IOException("Not a position file: " + file);
+            }
+        }
+
+        /**
+         *
+         * @return next position or null at the end of file
+         * @throws IOException
+         */
+        public Board read() throws IOException {
+            long occupancy;
+            try {
+                occupancy = in.readLong();
+            } catch (EOFException ex) {
+                return null;
+            }
+            Spot[][] spots = new Spot[Board.BOARD_SIZE][Board.BOARD_SIZE];
+            int current = 0;
+            int index = 0;
+            for (int square = 0; square < SPOTS; square++) {
+                if ((occupancy & 1L << square) == 0) {
+                    continue;
+                }
+                if (index % 2 == 0) {
+                    current = in.readUnsignedByte();
+                } else {
+                    current >>= 4;
+                }
+                spots[square / Board.BOARD_SIZE][square % Board.BOARD_SIZE] = new Spot(decode(current & 0xF));
+                index++;
+            }
+            int flags = in.readUnsignedByte();
+            int enPassantFile = in.readByte();
+            Board board = new Board(spots);
+            board.setPositionState((flags & 1) == 0 ? Color.WHITE : Color.BLACK, flags >> 1, enPassantFile);
+            return board;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+    }
+
+    private static int encode(Piece piece) {
+        return piece.getType().ordinal() << 1 | piece.getColor().ordinal();
+    }
+
+    private static Piece decode(int code) throws IOException {
+        Color color = Color.values()[code & 1];
+        int type = code >> 1;
+        if (type >= PieceType.values().length) {
+            throw new IOException("Corrupted position file");
+        }
+        return PieceType.values()[type].createPiece(color);
+    }
+
+}
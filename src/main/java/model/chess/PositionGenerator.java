@@ -0,0 +1,513 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package model.chess;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import model.pieces.King;
+import model.pieces.Piece;
+import model.pieces.PieceType;
+
+/**
+ * Generates random legal positions either by random playouts from the
+ * standard setup or by random placement of pieces. Generator with the same
+ * seed and settings always returns the same positions.
+ *
+ * @author ottovodvarka
+ */
+public class PositionGenerator {
+
+    /**
+     * How many times generator tries to find position matching filters
+     */
+    public static final int MAX_ATTEMPTS = 100000;
+
+    /**
+     * Number of positions generated by one generator, when positions are
+     * written to file
+     */
+    public static final int BATCH_SIZE = 256;
+
+    private static final PieceType[] SIGNATURE_ORDER = {
+        PieceType.KING, PieceType.QUEEN, PieceType.ROOK, PieceType.BISHOP, PieceType.KNIGHT, PieceType.PAWN
+    };
+
+    private final long seed;
+    private final Random random;
+
+    private int minPly = 8;
+    private int maxPly = 120;
+
+    private String materialSignature;
+    private GamePhase phase;
+    private Boolean inCheck;
+
+    /**
+     *
+     * @param seed
+     */
+    public PositionGenerator(long seed) {
+        this.seed = seed;
+        this.random = new Random(seed);
+    }
+
+    /**
+     *
+     * @return new generator with the same settings and another seed
+     */
+    private PositionGenerator copy(long seed) {
+        PositionGenerator copy = new PositionGenerator(seed);
+        copy.minPly = minPly;
+        copy.maxPly = maxPly;
+        copy.materialSignature = materialSignature;
+        copy.phase = phase;
+        copy.inCheck = inCheck;
+        return copy;
+    }
+
+    /**
+     * Plays random legal moves from standard setup, until position matching
+     * filters is reached
+     *
+     * @return new position
+     */
+    public Board nextPlayout() {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            Board board = new Board();
+            int targetPly = minPly + random.nextInt(maxPly - minPly + 1);
+            for (int ply = 1; ply <= maxPly; ply++) {
+                Move move = randomLegalMove(board);
+                if (move == null) {
+                    break;
+                }
+                board.moveTo(move);
+                if (ply >= targetPly && accepts(board)) {
+                    return board;
+                }
+            }
+        }
+        throw new IllegalStateException("No position matches filters");
+    }
+
+    /**
+     * Places pieces on random spots. Material is given by signature filter or
+     * is chosen randomly. Castling is never available in such positions.
+     *
+     * @return new position
+     */
+    public Board nextPlacement() {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            Board board = new Board(new Spot[Board.BOARD_SIZE][Board.BOARD_SIZE]);
+            String signature = materialSignature != null ? materialSignature : randomSignature();
+            if (!place(board, signature)) {
+                continue;
+            }
+            board.setPositionState(random.nextBoolean() ? Color.WHITE : Color.BLACK, 0, -1);
+            if (!board.isInCheck(board.getSideToMove().opposite()) && accepts(board)) {
+                return board;
+            }
+        }
+        throw new IllegalStateException("No position matches filters");
+    }
+
+    /**
+     *
+     * @param board
+     * @return true if position matches all filters
+     */
+    public boolean accepts(Board board) {
+        if (materialSignature != null && !materialSignature.equals(getMaterialSignature(board))) {
+            return false;
+        }
+        if (phase != null && phase != GamePhase.of(board)) {
+            return false;
+        }
+        if (inCheck != null && inCheck != board.isInCheck(board.getSideToMove())) {
+            return false;
+        }
+        return true;
+    }
+
+    private Move randomLegalMove(Board board) {
+        Color color = board.getSideToMove();
+        List<Move> moves = board.getAllAvailableMovesByColor(color);
+        while (!moves.isEmpty()) {
+            int index = random.nextInt(moves.size());
+            Move move = moves.get(index);
+            if (!board.isInCheckAfterThisMove(move, color)) {
+                return move;
+            }
+            moves.set(index, moves.get(moves.size() - 1));
+            moves.remove(moves.size() - 1);
+        }
+        return null;
+    }
+
+    private boolean place(Board board, String signature) {
+        List<Piece> pieces = parseSignature(signature);
+        for (Piece piece : pieces) {
+            Coordinate coord = randomEmptySpot(board, piece);
+            if (coord == null) {
+                return false;
+            }
+            board.addPiece(piece, coord);
+        }
+        return true;
+    }
+
+    private Coordinate randomEmptySpot(Board board, Piece piece) {
+        for (int i = 0; i < 64; i++) {
+            Coordinate coord = new Coordinate(random.nextInt(Board.BOARD_SIZE), random.nextInt(Board.BOARD_SIZE));
+            if (board.hasPiece(coord)) {
+                continue;
+            }
+            if (piece.getType() == PieceType.PAWN && (coord.getY() == 0 || coord.getY() == Board.BOARD_SIZE - 1)) {
+                continue;
+            }
+            if (piece instanceof King && isNextToKing(board, coord)) {
+                continue;
+            }
+            return coord;
+        }
+        return null;
+    }
+
+    private boolean isNextToKing(Board board, Coordinate coord) {
+        for (int x = -1; x <= 1; x++) {
+            for (int y = -1; y <= 1; y++) {
+                if (board.getPieceAt(new Coordinate(coord.getX() + x, coord.getY() + y)) instanceof King) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private String randomSignature() {
+        StringBuilder signature = new StringBuilder();
+        for (Color color : Color.values()) {
+            if (color == Color.BLACK) {
+                signature.append('v');
+            }
+            signature.append('K');
+            appendRandom(signature, PieceType.QUEEN, 1);
+            appendRandom(signature, PieceType.ROOK, 2);
+            appendRandom(signature, PieceType.BISHOP, 2);
+            appendRandom(signature, PieceType.KNIGHT, 2);
+            appendRandom(signature, PieceType.PAWN, 8);
+        }
+        return signature.toString();
+    }
+
+    private void appendRandom(StringBuilder signature, PieceType type, int max) {
+        int count = random.nextInt(max + 1);
+        for (int i = 0; i < count; i++) {
+            signature.append(type.getSymbol());
+        }
+    }
+
+    /**
+     * Signature lists white pieces and black pieces separated by 'v', both in
+     * order K, Q, R, B, N, P. For example "KRPvKR".
+     *
+     * @param board
+     * @return material signature of position
+     */
+    public static String getMaterialSignature(Board board) {
+        StringBuilder signature = new StringBuilder();
+        for (Color color : Color.values()) {
+            if (color == Color.BLACK) {
+                signature.append('v');
+            }
+            int[] counts = new int[PieceType.values().length];
+            for (Piece piece : board.getAllPiecesbyColor(color)) {
+                counts[piece.getType().ordinal()]++;
+            }
+            for (PieceType type : SIGNATURE_ORDER) {
+                for (int i = 0; i < counts[type.ordinal()]; i++) {
+                    signature.append(type.getSymbol());
+                }
+            }
+        }
+        return signature.toString();
+    }
+
+    private static List<Piece> parseSignature(String signature) {
+        List<Piece> pieces = new ArrayList<>();
+        Color color = Color.WHITE;
+        for (char symbol : signature.toCharArray()) {
+            if (symbol == 'v') {
+                color = Color.BLACK;
+                continue;
+            }
+            pieces.add(PieceType.fromSymbol(symbol).createPiece(color));
+        }
+        return pieces;
+    }
+
+    /**
+     *
+     * @param signature material signature like "KRPvKR", null for any material
+     * @throws IllegalArgumentException when signature is not valid
+     */
+    public void setMaterialSignature(String signature) {
+        if (signature != null) {
+            validateSignature(signature);
+        }
+        this.materialSignature = signature;
+    }
+
+    private static void validateSignature(String signature) {
+        String[] sides = signature.split("v", -1);
+        if (sides.length != 2) {
+            throw new IllegalArgumentException("Signature must contain material of both sides: " + signature);
+        }
+        for (String side : sides) {
+            int[] counts = new int[PieceType.values().length];
+            int order = 0;
+            for (char symbol : side.toCharArray()) {
+                PieceType type = PieceType.fromSymbol(symbol);
+                if (type == null || symbol != type.getSymbol()) {
+                    throw new IllegalArgumentException("Unknown piece in signature: " + symbol);
+                }
+                while (order < SIGNATURE_ORDER.length && SIGNATURE_ORDER[order] != type) {
+                    order++;
+                }
+                if (order == SIGNATURE_ORDER.length) {
+                    throw new IllegalArgumentException("Pieces must be in order KQRBNP: " + signature);
+                }
+                counts[type.ordinal()]++;
+            }
+            int promoted = Math.max(0, counts[PieceType.QUEEN.ordinal()] - 1)
+                    + Math.max(0, counts[PieceType.ROOK.ordinal()] - 2)
+                    + Math.max(0, counts[PieceType.BISHOP.ordinal()] - 2)
+                    + Math.max(0, counts[PieceType.KNIGHT.ordinal()] - 2);
+            if (counts[PieceType.KING.ordinal()] != 1 || counts[PieceType.PAWN.ordinal()] + promoted > 8) {
+                throw new IllegalArgumentException("Material cannot be reached in a game: " + signature);
+            }
+        }
+    }
+
+    /**
+     *
+     * @param phase required phase, null for any phase
+     */
+    public void setPhase(GamePhase phase) {
+        this.phase = phase;
+    }
+
+    /**
+     *
+     * @param inCheck whether side to move must be in check, null for both
+     */
+    public void setInCheck(Boolean inCheck) {
+        this.inCheck = inCheck;
+    }
+
+    /**
+     * Range of length of random playouts
+     *
+     * @param minPly
+     * @param maxPly
+     */
+    public void setPlyRange(int minPly, int maxPly) {
+        if (minPly < 0 || maxPly < minPly) {
+            throw new IllegalArgumentException("Invalid ply range " + minPly + "-" + maxPly);
+        }
+        this.minPly = minPly;
+        this.maxPly = maxPly;
+    }
+
+    /**
+     * Generates positions on more threads and writes them to file. Positions
+     * are generated in batches, each by generator with seed mixed from seed
+     * of this generator and number of batch, and written in order of batches. File depends only on
+     * seed and settings, not on number of threads.
+     *
+     * @param file file to be created
+     * @param count number of positions
+     * @param threads number of generating threads
+     * @param placement true for random placement, false for random playouts
+     * @return number of written positions
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws IllegalStateException when no position matches filters
+     */
+    public long writeFile(File file, final long count, int threads, final boolean placement)
+            throws IOException, InterruptedException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one thread is needed: " + threads);
+        }
+        final long batches = (count + BATCH_SIZE - 1) / BATCH_SIZE;
+        //finished batches waiting for writing, workers stay at most this
+        //number of batches ahead of writer
+        final int window = 2 * threads;
+        final Board[][] finished = new Board[window][];
+        final AtomicLong nextBatch = new AtomicLong();
+        final long[] writtenBatches = new long[1];
+        final Throwable[] failure = new Throwable[1];
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        long batch;
+                        while ((batch = nextBatch.getAndIncrement()) < batches) {
+                            synchronized (finished) {
+                                while (batch - writtenBatches[0] >= window && failure[0] == null) {
+                                    finished.wait();
+                                }
+                                if (failure[0] != null) {
+                                    return;
+                                }
+                            }
+                            PositionGenerator generator = copy(batchSeed(batch));
+                            Board[] boards = new Board[(int) Math.min(BATCH_SIZE, count - batch * BATCH_SIZE)];
+                            for (int n = 0; n < boards.length; n++) {
+                                boards[n] = placement ? generator.nextPlacement() : generator.nextPlayout();
+                            }
+                            synchronized (finished) {
+                                finished[(int) (batch % window)] = boards;
+                                finished.notifyAll();
+                            }
+                        }
+                    } catch (Throwable ex) {
+                        synchronized (finished) {
+                            if (failure[0] == null) {
+                                failure[0] = ex;
+                            }
+                            finished.notifyAll();
+                        }
+                    }
+                }
+            }, "position-generator-" + i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+
+        long written = 0;
+        try (PositionFile.Writer writer = new PositionFile.Writer(file)) {
+            for (long batch = 0; batch < batches; batch++) {
+                Board[] boards;
+                synchronized (finished) {
+                    int slot = (int) (batch % window);
+                    while (finished[slot] == null && failure[0] == null) {
+                        finished.wait();
+                    }
+                    if (failure[0] != null) {
+                        break;
+                    }
+                    boards = finished[slot];
+                    finished[slot] = null;
+                }
+                for (Board board : boards) {
+                    writer.write(board);
+                }
+                written = writer.getCount();
+                synchronized (finished) {
+                    writtenBatches[0] = batch + 1;
+                    finished.notifyAll();
+                }
+            }
+        } catch (Throwable ex) {
+            //waiting workers must end also when writer is interrupted
+            synchronized (finished) {
+                if (failure[0] == null) {
+                    failure[0] = ex;
+                }
+                finished.notifyAll();
+            }
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        if (failure[0] != null) {
+            rethrow(failure[0], written);
+        }
+        return written;
+    }
+
+    /**
+     * Seeds of batches are mixed, so that generators with near seeds do not
+     * share batches
+     */
+    private long batchSeed(long batch) {
+        //finalizer of splitmix64
+        long z = seed * 0x9e3779b97f4a7c15L + batch;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static void rethrow(Throwable failure, long written) throws IOException, InterruptedException {
+        String message = "Generation failed after " + written + " positions";
+        if (failure instanceof InterruptedException) {
+            throw (InterruptedException) failure;
+        }
+        if (failure instanceof IOException) {
+            throw new IOException(message, failure);
+        }
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        throw new IllegalStateException(message, failure);
+    }
+
+    /**
+     * Usage: PositionGenerator file count [seed] [placement] [signature=KRvK]
+     * [phase=ENDGAME] [check=true] [threads=4]
+     *
+     * @param args the command line arguments
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 2) {
+            System.err.println("Usage: PositionGenerator file count [seed] [placement] [signature=KRvK] [phase=ENDGAME] [check=true] [threads=4]");
+            System.exit(1);
+        }
+        final File file = new File(args[0]);
+        final long count = Long.parseLong(args[1]);
+        long seed = 0;
+        int threads = 1;
+        boolean placement = false;
+        String signature = null;
+        GamePhase phase = null;
+        Boolean check = null;
+        for (int i = 2; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("placement")) {
+                placement = true;
+            } else if (arg.startsWith("signature=")) {
+                signature = arg.substring("signature=".length());
+            } else if (arg.startsWith("phase=")) {
+                phase = GamePhase.valueOf(arg.substring("phase=".length()).toUpperCase());
+            } else if (arg.startsWith("check=")) {
+                check = Boolean.valueOf(arg.substring("check=".length()));
+            } else if (arg.startsWith("threads=")) {
+                threads = Integer.parseInt(arg.substring("threads=".length()));
+            } else {
+                seed = Long.parseLong(arg);
+            }
+        }
+
+        PositionGenerator generator = new PositionGenerator(seed);
+        generator.setMaterialSignature(signature);
+        generator.setPhase(phase);
+        generator.setInCheck(check);
+        long startTime = System.nanoTime();
+        long written = generator.writeFile(file, count, threads, placement);
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+        System.out.printf("%d positions written to %s in %.1f s (%.0f positions/min)%n",
+                written, file, seconds, written / seconds * 60);
+    }
+
+}
@@ -0,0 +1,125 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package model.chess;
+
+import java.util.List;
+import model.pieces.Piece;
+import model.pieces.PieceType;
+
+/**
+ * Standard algebraic notation of moves, e.g. "Nf3", "exd5", "O-O" or "e8=Q+"
+ *
+ * @author ottovodvarka
+ */
+public class San {
+
+    /**
+     *
+     * @param board position before the move
+     * @param move legal move
+     * @return move in standard algebraic notation
+     */
+    public static String toSan(Board board, Move move) {
+        Piece piece = board.getPieceAt(move.getStart());
+        StringBuilder san = new StringBuilder();
+        if (move.isCastling()) {
+            san.append(move.getEndX() > move.getStartX() ? "O-O" : "O-O-O");
+        } else {
+            boolean capture = board.hasPiece(move.getEnd()) || move.isEnPassant();
+            if (piece.getType() == PieceType.PAWN) {
+                if (capture) {
+                    san.append(fileName(move.getStartX()));
+                }
+            } else {
+                san.append(piece.getType().getSymbol());
+                appendDisambiguation(san, board, move, piece);
+            }
+            if (capture) {
+                san.append('x');
+            }
+            san.append(squareName(move.getEnd()));
+            if (move.isPromotion()) {
+                san.append("=Q");
+            }
+        }
+
+        Color opponent = piece.getColor().opposite();
+        board.makeMove(move);
+        if (board.isInCheck(opponent)) {
+            san.append(board.getAllLegalMovesByColor(opponent).isEmpty() ? '#' : '+');
+        }
+        board.undoMove();
+        return san.toString();
+    }
+
+    private static void appendDisambiguation(StringBuilder san, Board board, Move move, Piece piece) {
+        boolean ambiguous = false;
+        boolean sameFile = false;
+        boolean sameRank = false;
+        for (Move other : board.getAllLegalMovesByColor(piece.getColor())) {
+            Piece otherPiece = board.getPieceAt(other.getStart());
+            if (other.getStart().equals(move.getStart()) || !other.getEnd().equals(move.getEnd())
+                    || otherPiece.getType() != piece.getType()) {
+                continue;
+            }
+            ambiguous = true;
+            sameFile |= other.getStartX() == move.getStartX();
+            sameRank |= other.getStartY() == move.getStartY();
+        }
+        if (!ambiguous) {
+            return;
+        }
+        if (!sameFile) {
+            san.append(fileName(move.getStartX()));
+        } else if (!sameRank) {
+            san.append(rankName(move.getStartY()));
+        } else {
+            san.append(squareName(move.getStart()));
+        }
+    }
+
+    /**
+     * Finds legal move of side to move written in standard algebraic
+     * notation. Check marks and annotations like "!" are ignored.
+     *
+     * @param board
+     * @param san
+     * @return legal move
+     * @throws IllegalArgumentException when there is no such legal move
+     */
+    public static Move parse(Board board, String san) {
+        String wanted = normalize(san);
+        List<Move> moves = board.getAllLegalMovesByColor(board.getSideToMove());
+        for (Move move : moves) {
+            if (normalize(toSan(board, move)).equals(wanted)) {
+                return move;
+            }
+        }
+        throw new IllegalArgumentException("Illegal move " + san + " in " + Fen.toFen(board));
+    }
+
+    private static String normalize(String san) {
+        return san.replaceAll("[+#!?]", "").replace('0', 'O');
+    }
+
+    /**
+     *
+     * @param coord
+     * @return name of spot, e.g. "e4"
+     */
+    public static String squareName(Coordinate coord) {
+        return fileName(coord.getX()) + rankName(coord.getY());
+    }
+
+    private static String fileName(int x) {
+        return String.valueOf((char) ('a' + x));
+    }
+
+    private static String rankName(int y) {
+        return String.valueOf(Board.BOARD_SIZE - y);
+    }
+
+}
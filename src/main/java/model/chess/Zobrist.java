@@ -0,0 +1,60 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package model.chess;
+
+import java.util.Random;
+import model.pieces.Piece;
+
+/**
+ * Random keys for Zobrist hashing of positions. Keys are generated from fixed
+ * seed, so hashes are the same in every run.
+ *
+ * @author ottovodvarka
+ */
+class Zobrist {
+
+    private static final int SPOTS = Board.BOARD_SIZE * Board.BOARD_SIZE;
+
+    private static final long[] PIECES = new long[12 * SPOTS];
+    private static final long[] CASTLING = new long[16];
+    private static final long[] EN_PASSANT = new long[Board.BOARD_SIZE];
+    private static final long BLACK_TO_MOVE;
+
+    static {
+        Random random = new Random(0x5EED);
+        for (int i = 0; i < PIECES.length; i++) {
+            PIECES[i] = random.nextLong();
+        }
+        //no castling rights has zero key, so it does not change the hash
+        for (int i = 1; i < CASTLING.length; i++) {
+            CASTLING[i] = random.nextLong();
+        }
+        for (int i = 0; i < EN_PASSANT.length; i++) {
+            EN_PASSANT[i] = random.nextLong();
+        }
+        BLACK_TO_MOVE = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    static long piece(Piece piece, int x, int y) {
+        int index = piece.getType().ordinal() << 1 | piece.getColor().ordinal();
+        return PIECES[index * SPOTS + y * Board.BOARD_SIZE + x];
+    }
+
+    static long state(Color sideToMove, int castlingRights, int enPassantFile) {
+        long key = CASTLING[castlingRights];
+        if (enPassantFile >= 0) {
+            key ^= EN_PASSANT[enPassantFile];
+        }
+        if (sideToMove == Color.BLACK) {
+            key ^= BLACK_TO_MOVE;
+        }
+        return key;
+    }
+
+}
@@ -0,0 +1,201 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package model.engine;
+
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import model.chess.Board;
+
+/**
+ * Background analysis of a position. The position is searched without
+ * limits on a thread of its own, until another position is given or the
+ * analysis is stopped. The best lines are delivered after finished
+ * iterations by the given executor, e.g. on FX thread, at most once per
+ * update interval. Results of older positions are never delivered.
+ *
+ * @author ottovodvarka
+ */
+public class Analysis {
+
+    /**
+     * Shortest time between two updates in milliseconds
+     */
+    public static final long UPDATE_INTERVAL = 250;
+
+    /**
+     * Number of lines, when no other number is given
+     */
+    public static final int DEFAULT_LINES = 3;
+
+    private final Evaluation evaluation;
+    private final TranspositionTable table;
+    private final Executor updateExecutor;
+    private final SearchListener listener;
+    private int lines = DEFAULT_LINES;
+    //one processor is left for user interface
+    private int threads = Math.max(1, ParallelSearch.DEFAULT_THREADS - 1);
+
+    private final ExecutorService searchExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "analysis");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+    private final Timer timer = new Timer("analysis-updates", true);
+    private ParallelSearch search;
+    private volatile int generation;
+
+    private final AtomicReference<Update> latest = new AtomicReference<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private volatile long lastUpdate;
+
+    /**
+     *
+     * @param evaluation evaluation of leaf positions
+     * @param table table kept between positions, usually the one of computer
+     * players
+     * @param updateExecutor executor calling the listener
+     * @param listener receives result with the best lines
+     */
+    public Analysis(Evaluation evaluation, TranspositionTable table, Executor updateExecutor, SearchListener listener) {
+        this.evaluation = evaluation;
+        this.table = table;
+        this.updateExecutor = updateExecutor;
+        this.listener = listener;
+    }
+
+    /**
+     * Stops analysis of previous position and starts analysis of board. Board
+     * is copied, so it must not be changed meanwhile by another thread.
+     *
+     * @param board position to analyze
+     */
+    public synchronized void analyze(Board board) {
+        stop();
+        final Board copy = new Board(board);
+        final int current = generation;
+        final ParallelSearch next = new ParallelSearch(evaluation, table, threads);
+        SearchOptions options = new SearchOptions();
+        options.setMultiPv(lines);
+        next.setOptions(options);
+        next.setListener(new SearchListener() {
+            @Override
+            public void iterationFinished(SearchResult result) {
+                publish(current, result);
+            }
+        });
+        search = next;
+        searchExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                publish(current, next.search(copy, new SearchLimits()));
+            }
+        });
+    }
+
+    /**
+     * Stops analysis, updates which were not delivered yet are dropped
+     */
+    public synchronized void stop() {
+        generation++;
+        if (search != null) {
+            search.stop();
+            search = null;
+        }
+    }
+
+    /**
+     * Stops analysis and releases its threads, analysis cannot be started
+     * again
+     */
+    public synchronized void shutdown() {
+        stop();
+        searchExecutor.shutdownNow();
+        timer.cancel();
+    }
+
+    private void publish(int resultGeneration, SearchResult result) {
+        if (resultGeneration != generation) {
+            return;
+        }
+        latest.set(new Update(resultGeneration, result));
+        if (scheduled.compareAndSet(false, true)) {
+            long delay = Math.max(0, lastUpdate + UPDATE_INTERVAL - System.currentTimeMillis());
+            try {
+                timer.schedule(new TimerTask() {
+                    @Override
+                    public void run() {
+                        lastUpdate = System.currentTimeMillis();
+                        scheduled.set(false);
+                        updateExecutor.execute(new Runnable() {
+                            @Override
+                            public void run() {
+                                deliver();
+                            }
+                        });
+                    }
+                }, delay);
+            } catch (IllegalStateException ex) {
+                //timer was cancelled by shutdown
+            }
+        }
+    }
+
+    private void deliver() {
+        Update update = latest.getAndSet(null);
+        if (update != null && update.generation == generation) {
+            listener.iterationFinished(update.result);
+        }
+    }
+
+    public int getLines() {
+        return lines;
+    }
+
+    /**
+     *
+     * @param lines number of the best lines, used from the next position
+     */
+    public void setLines(int lines) {
+        this.lines = lines;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     *
+     * @param threads number of search threads, used from the next position
+     */
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * Result together with the position it belongs to
+     */
+    private static class Update {
+
+        private final int generation;
+        private final SearchResult result;
+
+        private Update(int generation, SearchResult result) {
+            this.generation = generation;
+            this.result = result;
+        }
+
+    }
+
+}
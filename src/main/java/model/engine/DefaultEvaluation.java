@@ -0,0 +1,108 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package model.engine;
+
+import model.chess.Board;
+import model.chess.Color;
+import model.pieces.Piece;
+
+/**
+ * Material and piece-square tables. Tables are written from the view of
+ * white, first row is the eighth rank.
+ *
+ * @author ottovodvarka
+ */
+public class DefaultEvaluation implements Evaluation {
+
+    private static final int[][] PAWN = {
+        {0, 0, 0, 0, 0, 0, 0, 0},
+        {50, 50, 50, 50, 50, 50, 50, 50},
+        {10, 10, 20, 30, 30, 20, 10, 10},
+        {5, 5, 10, 25, 25, 10, 5, 5},
+        {0, 0, 0, 20, 20, 0, 0, 0},
+        {5, -5, -10, 0, 0, -10, -5, 5},
+        {5, 10, 10, -20, -20, 10, 10, 5},
+        {0, 0, 0, 0, 0, 0, 0, 0}
+    };
+
+    private static final int[][] KNIGHT = {
+        {-50, -40, -30, -30, -30, -30, -40, -50},
+        {-40, -20, 0, 0, 0, 0, -20, -40},
+        {-30, 0, 10, 15, 15, 10, 0, -30},
+        {-30, 5, 15, 20, 20, 15, 5, -30},
+        {-30, 0, 15, 20, 20, 15, 0, -30},
+        {-30, 5, 10, 15, 15, 10, 5, -30},
+        {-40, -20, 0, 5, 5, 0, -20, -40},
+        {-50, -40, -30, -30, -30, -30, -40, -50}
+    };
+
+    private static final int[][] BISHOP = {
+        {-20, -10, -10, -10, -10, -10, -10, -20},
+        {-10, 0, 0, 0, 0, 0, 0, -10},
+        {-10, 0, 5, 10, 10, 5, 0, -10},
+        {-10, 5, 5, 10, 10, 5, 5, -10},
+        {-10, 0, 10, 10, 10, 10, 0, -10},
+        {-10, 10, 10, 10, 10, 10, 10, -10},
+        {-10, 5, 0, 0, 0, 0, 5, -10},
+        {-20, -10, -10, -10, -10, -10, -10, -20}
+    };
+
+    private static final int[][] ROOK = {
+        {0, 0, 0, 0, 0, 0, 0, 0},
+        {5, 10, 10, 10, 10, 10, 10, 5},
+        {-5, 0, 0, 0, 0, 0, 0, -5},
+        {-5, 0, 0, 0, 0, 0, 0, -5},
+        {-5, 0, 0, 0, 0, 0, 0, -5},
+        {-5, 0, 0, 0, 0, 0, 0, -5},
+        {-5, 0, 0, 0, 0, 0, 0, -5},
+        {0, 0, 0, 5, 5, 0, 0, 0}
+    };
+
+    private static final int[][] QUEEN = {
+        {-20, -10, -10, -5, -5, -10, -10, -20},
+        {-10, 0, 0, 0, 0, 0, 0, -10},
+        {-10, 0, 5, 5, 5, 5, 0, -10},
+        {-5, 0, 5, 5, 5, 5, 0, -5},
+        {0, 0, 5, 5, 5, 5, 0, -5},
+        {-10, 5, 5, 5, 5, 5, 0, -10},
+        {-10, 0, 5, 0, 0, 0, 0, -10},
+        {-20, -10, -10, -5, -5, -10, -10, -20}
+    };
+
+    private static final int[][] KING = {
+        {-30, -40, -40, -50, -50, -40, -40, -30},
+        {-30, -40, -40, -50, -50, -40, -40, -30},
+        {-30, -40, -40, -50, -50, -40, -40, -30},
+        {-30, -40, -40, -50, -50, -40, -40, -30},
+        {-20, -30, -30, -40, -40, -30, -30, -20},
+        {-10, -20, -20, -20, -20, -20, -20, -10},
+        {20, 20, 0, 0, 0, 0, 20, 20},
+        {20, 30, 10, 0, 0, 10, 30, 20}
+    };
+
+    private static final int[][][] TABLES = {PAWN, KNIGHT, BISHOP, ROOK, QUEEN, KING};
+
+    @Override
+    public int evaluate(Board board) {
+        int score = 0;
+        for (int y = 0; y < Board.BOARD_SIZE; y++) {
+            for (int x = 0; x < Board.BOARD_SIZE; x++) {
+                Piece piece = board.getPieceAt(x, y);
+                if (piece == null) {
+                    continue;
+                }
+                int[][] table = TABLES[piece.getType().ordinal()];
+                if (piece.getColor() == Color.WHITE) {
+                    score += piece.getType().getValue() + table[y][x];
+                } else {
+                    score -= piece.getType().getValue() + table[Board.BOARD_SIZE - 1 - y][x];
+                }
+            }
+        }
+        return board.getSideToMove() == Color.WHITE ? score : -score;
+    }
+
+}
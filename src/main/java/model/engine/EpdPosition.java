@@ -0,0 +1,142 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package model.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import model.chess.Board;
+import model.chess.Fen;
+import model.chess.Move;
+import model.chess.San;
+
+/**
+ * One line of EPD test suite, e.g.
+ * <pre>2rr3k/pp3pp1/1nnqbN1p/3pN3/2pP4/2P3Q1/PPB4P/R4RK1 w - - bm Qg6; id "WAC.001";</pre>
+ * Only operations bm (best moves), am (avoid moves) and id are used.
+ *
+ * @author ottovodvarka
+ */
+public class EpdPosition {
+
+    private final String fen;
+    private final String id;
+    private final List<String> bestMoves = new ArrayList<>();
+    private final List<String> avoidMoves = new ArrayList<>();
+
+    /**
+     *
+     * @param line line of EPD file
+     * @throws IllegalArgumentException when line is not valid EPD
+     */
+    public EpdPosition(String line) {
+        String[] fields = line.trim().split("\\s+", 5);
+        if (fields.length < 4) {
+            throw new IllegalArgumentException("EPD must have at least 4 fields: " + line);
+        }
+        fen = fields[0] + " " + fields[1] + " " + fields[2] + " " + fields[3];
+        String foundId = null;
+        if (fields.length == 5) {
+            for (String operation : fields[4].split(";")) {
+                String[] parts = operation.trim().split("\\s+", 2);
+                if (parts.length < 2) {
+                    continue;
+                }
+                switch (parts[0]) {
+                    case "bm":
+                        addMoves(bestMoves, parts[1]);
+                        break;
+                    case "am":
+                        addMoves(avoidMoves, parts[1]);
+                        break;
+                    case "id":
+                        foundId = parts[1].replace("\"", "");
+                        break;
+                }
+            }
+        }
+        id = foundId != null ? foundId : fen;
+        if (bestMoves.isEmpty() && avoidMoves.isEmpty()) {
+            throw new IllegalArgumentException("EPD has neither bm nor am operation: " + line);
+        }
+        //validates position and moves
+        Board board = createBoard();
+        getBestMoves(board);
+        getAvoidMoves(board);
+    }
+
+    private static void addMoves(List<String> moves, String operand) {
+        for (String move : operand.trim().split("\\s+")) {
+            moves.add(move);
+        }
+    }
+
+    /**
+     *
+     * @return new board with the position
+     */
+    public Board createBoard() {
+        return Fen.parse(fen);
+    }
+
+    /**
+     *
+     * @param board board created by createBoard
+     * @return moves, which solve the position
+     */
+    public List<Move> getBestMoves(Board board) {
+        return parseMoves(board, bestMoves);
+    }
+
+    /**
+     *
+     * @param board board created by createBoard
+     * @return moves, which must not be played
+     */
+    public List<Move> getAvoidMoves(Board board) {
+        return parseMoves(board, avoidMoves);
+    }
+
+    private static List<Move> parseMoves(Board board, List<String> sans) {
+        List<Move> moves = new ArrayList<>();
+        for (String san : sans) {
+            moves.add(San.parse(board, san));
+        }
+        return moves;
+    }
+
+    /**
+     *
+     * @param board board created by createBoard
+     * @param move move chosen by engine
+     * @return true if move is one of best moves and is not one of avoid moves
+     */
+    public boolean isSolvedBy(Board board, Move move) {
+        if (move == null) {
+            return false;
+        }
+        if (!bestMoves.isEmpty() && !getBestMoves(board).contains(move)) {
+            return false;
+        }
+        return !getAvoidMoves(board).contains(move);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getFen() {
+        return fen;
+    }
+
+    public List<String> getBestMoveNames() {
+        return bestMoves;
+    }
+
+    public List<String> getAvoidMoveNames() {
+        return avoidMoves;
+    }
+
+}
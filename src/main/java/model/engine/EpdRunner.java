@@ -0,0 +1,270 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package model.engine;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import model.chess.Board;
+import model.chess.ComputerPlayer;
+import model.chess.San;
+
+/**
+ * Solves EPD test suite by computer player. Positions are searched in
+ * parallel on all processors, each with the same limits.
+ *
+ * @author ottovodvarka
+ */
+public class EpdRunner {
+
+    /**
+     * Time of search of each position in milliseconds, when no other limit is
+     * given
+     */
+    public static final long DEFAULT_TIME = 5000;
+
+    private final SearchLimits limits;
+    private final int threads;
+
+    //positions are searched in parallel, each worker thread has its own table
+    private final ThreadLocal<TranspositionTable> tables = new ThreadLocal<TranspositionTable>() {
+        @Override
+        protected TranspositionTable initialValue() {
+            return new TranspositionTable();
+        }
+    };
+
+    /**
+     *
+     * @param limits limits of search of each position
+     * @param threads number of positions searched at once
+     */
+    public EpdRunner(SearchLimits limits, int threads) {
+        this.limits = limits;
+        this.threads = threads;
+    }
+
+    /**
+     * Result of one position
+     */
+    public static class Result {
+
+        private final EpdPosition position;
+        private final SearchResult searchResult;
+        private final String move;
+        private final boolean solved;
+        private final long solutionTime;
+
+        private Result(EpdPosition position, SearchResult searchResult, String move, boolean solved, long solutionTime) {
+            this.position = position;
+            this.searchResult = searchResult;
+            this.move = move;
+            this.solved = solved;
+            this.solutionTime = solutionTime;
+        }
+
+        public EpdPosition getPosition() {
+            return position;
+        }
+
+        public SearchResult getSearchResult() {
+            return searchResult;
+        }
+
+        /**
+         *
+         * @return chosen move in standard algebraic notation or "none"
+         */
+        public String getMove() {
+            return move;
+        }
+
+        public boolean isSolved() {
+            return solved;
+        }
+
+        /**
+         *
+         * @return time in milliseconds, when search found the solution and
+         * kept it till the end, -1 if position is not solved
+         */
+        public long getSolutionTime() {
+            return solutionTime;
+        }
+
+    }
+
+    /**
+     *
+     * @param file EPD file
+     * @return positions of file
+     * @throws IOException
+     */
+    public static List<EpdPosition> load(File file) throws IOException {
+        List<EpdPosition> positions = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"))) {
+            String line;
+            int number = 0;
+            while ((line = reader.readLine()) != null) {
+                number++;
+                if (line.trim().isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                try {
+                    positions.add(new EpdPosition(line));
+                } catch (IllegalArgumentException ex) {
+                    System.err.println("Skipping line " + number + ": " + ex.getMessage());
+                }
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Searches all positions, results are in the same order as positions
+     *
+     * @param positions
+     * @return results of positions
+     * @throws InterruptedException
+     */
+    public List<Result> run(List<EpdPosition> positions) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Result>> futures = new ArrayList<>();
+            for (final EpdPosition position : positions) {
+                futures.add(executor.submit(new Callable<Result>() {
+                    @Override
+                    public Result call() {
+                        return solve(position);
+                    }
+                }));
+            }
+            List<Result> results = new ArrayList<>();
+            for (Future<Result> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException ex) {
+                    throw new IllegalStateException("Search failed", ex.getCause());
+                }
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Result solve(final EpdPosition position) {
+        final Board board = position.createBoard();
+        TranspositionTable table = tables.get();
+        table.clear();
+        ComputerPlayer player = new ComputerPlayer(position.getId(), board.getSideToMove(), table);
+        //positions themselves are searched in parallel
+        player.setThreads(1);
+        //time of the first iteration, since which the best move solves the position
+        final long[] solvedSince = {-1};
+        player.setListener(new SearchListener() {
+            @Override
+            public void iterationFinished(SearchResult result) {
+                if (!position.isSolvedBy(board, result.getMove())) {
+                    solvedSince[0] = -1;
+                } else if (solvedSince[0] < 0) {
+                    solvedSince[0] = result.getTime();
+                }
+            }
+        });
+        SearchResult searchResult = player.search(board, limits);
+        String move = searchResult.getMove() == null ? "none" : San.toSan(board, searchResult.getMove());
+        boolean solved = position.isSolvedBy(board, searchResult.getMove());
+        long solutionTime = -1;
+        if (solved) {
+            solutionTime = solvedSince[0] >= 0 ? solvedSince[0] : searchResult.getTime();
+        }
+        return new Result(position, searchResult, move, solved, solutionTime);
+    }
+
+    /**
+     * Usage: EpdRunner file [time=ms] [nodes=n] [depth=n] [threads=n]
+     * <p>
+     * Each position is searched for DEFAULT_TIME, when no limit is given.
+     *
+     * @param args the command line arguments
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1) {
+            System.err.println("Usage: EpdRunner file [time=ms] [nodes=n] [depth=n] [threads=n]");
+            System.exit(1);
+        }
+        SearchLimits limits = new SearchLimits();
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 1; i < args.length; i++) {
+            String[] option = args[i].split("=", 2);
+            switch (option[0]) {
+                case "time":
+                    limits.setTime(Long.parseLong(option[1]));
+                    break;
+                case "nodes":
+                    limits.setNodes(Long.parseLong(option[1]));
+                    break;
+                case "depth":
+                    limits.setDepth(Integer.parseInt(option[1]));
+                    break;
+                case "threads":
+                    threads = Integer.parseInt(option[1]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (limits.getTime() == 0 && limits.getNodes() == 0 && limits.getDepth() == 0) {
+            limits.setTime(DEFAULT_TIME);
+        }
+
+        List<EpdPosition> positions = load(new File(args[0]));
+        System.out.println("Solving " + positions.size() + " positions, " + limits + ", " + threads + " threads");
+        List<Result> results = new EpdRunner(limits, threads).run(positions);
+
+        int solved = 0;
+        long nodes = 0;
+        long time = 0;
+        long solutionTime = 0;
+        for (Result result : results) {
+            SearchResult searchResult = result.getSearchResult();
+            String expected = result.getPosition().getBestMoveNames().isEmpty()
+                    ? "am " + result.getPosition().getAvoidMoveNames()
+                    : "bm " + result.getPosition().getBestMoveNames();
+            System.out.printf("%-20s %-7s %-8s %-22s solved at %6s ms  time %6d ms  nodes %10d  nps %9d  pv %s%n",
+                    result.getPosition().getId(), result.isSolved() ? "solved" : "failed", result.getMove(),
+                    expected, result.isSolved() ? String.valueOf(result.getSolutionTime()) : "-",
+                    searchResult.getTime(), searchResult.getNodes(), searchResult.getNodesPerSecond(),
+                    searchResult.getPrincipalVariationSan());
+            if (result.isSolved()) {
+                solved++;
+                solutionTime += result.getSolutionTime();
+            }
+            nodes += searchResult.getNodes();
+            time += searchResult.getTime();
+        }
+        System.out.println("===========================");
+        System.out.printf("Solved          : %d/%d (%.1f%%)%n", solved, results.size(),
+                results.isEmpty() ? 0.0 : 100.0 * solved / results.size());
+        System.out.printf("Time to solution: %d ms total, %d ms average of solved%n", solutionTime,
+                solved == 0 ? 0 : solutionTime / solved);
+        System.out.printf("Nodes searched  : %d%n", nodes);
+        System.out.printf("Nodes/second    : %d%n", nodes * 1000 / Math.max(1, time));
+    }
+
+}
@@ -0,0 +1,24 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package model.engine;
+
+import model.chess.Board;
+
+/**
+ * Static evaluation of position used by search
+ *
+ * @author ottovodvarka
+ */
+public interface Evaluation {
+
+    /**
+     *
+     * @param board
+     * @return score in centipawns from the view of side to move
+     */
+    int evaluate(Board board);
+
+}
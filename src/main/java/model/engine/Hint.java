@@ -0,0 +1,130 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package model.engine;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import model.chess.Board;
+
+/**
+ * Short search suggesting a move to human player. Search runs on a
+ * background thread with a small budget and its result is delivered by the
+ * given executor, e.g. on FX thread. A hint, which is cancelled or replaced
+ * by a newer one, is never delivered.
+ *
+ * @author ottovodvarka
+ */
+public class Hint {
+
+    /**
+     * Time of hint search in milliseconds
+     */
+    public static final long HINT_TIME = 200;
+
+    /**
+     * Nodes of hint search, limits the search on fast computers
+     */
+    public static final long HINT_NODES = 2000000;
+
+    private final Evaluation evaluation;
+    private final TranspositionTable table;
+    private final Executor resultExecutor;
+    private final SearchListener listener;
+    private SearchLimits limits = new SearchLimits(0, HINT_NODES, HINT_TIME);
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "hint");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+    private ParallelSearch search;
+    private volatile int generation;
+
+    /**
+     *
+     * @param evaluation evaluation of leaf positions
+     * @param table table of earlier searches, so that the position is likely
+     * to be searched already
+     * @param resultExecutor executor calling the listener
+     * @param listener receives result of hint search
+     */
+    public Hint(Evaluation evaluation, TranspositionTable table, Executor resultExecutor, SearchListener listener) {
+        this.evaluation = evaluation;
+        this.table = table;
+        this.resultExecutor = resultExecutor;
+        this.listener = listener;
+    }
+
+    /**
+     * Starts search of board, previous hint is cancelled. Board is copied, so
+     * it must not be changed meanwhile by another thread.
+     *
+     * @param board position with human player on move
+     */
+    public synchronized void request(Board board) {
+        cancel();
+        final Board copy = new Board(board);
+        final int current = generation;
+        final ParallelSearch next = new ParallelSearch(evaluation, table, ParallelSearch.DEFAULT_THREADS);
+        final SearchLimits hintLimits = new SearchLimits(limits);
+        search = next;
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (current != generation) {
+                    return;
+                }
+                final SearchResult result = next.search(copy, hintLimits);
+                resultExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (current == generation && result.getMove() != null) {
+                            listener.iterationFinished(result);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Stops hint search, e.g. when the player moved before the hint was
+     * shown
+     */
+    public synchronized void cancel() {
+        generation++;
+        if (search != null) {
+            search.stop();
+            search = null;
+        }
+    }
+
+    /**
+     * Cancels hint and releases its thread, no more hints can be requested
+     */
+    public synchronized void shutdown() {
+        cancel();
+        executor.shutdownNow();
+    }
+
+    public SearchLimits getLimits() {
+        return limits;
+    }
+
+    /**
+     *
+     * @param limits budget of hint search
+     */
+    public void setLimits(SearchLimits limits) {
+        this.limits = limits;
+    }
+
+}
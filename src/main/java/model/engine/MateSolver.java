@@ -0,0 +1,328 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package model.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import model.chess.Board;
+import model.chess.Color;
+import model.chess.Move;
+import model.chess.San;
+
+/**
+ * Solver of mate in N moves by depth-first proof-number search. Side to move
+ * is the attacker, a position is proved when the attacker mates in all
+ * lines and disproved when the defender escapes in one of them. Unlike
+ * alpha-beta the search goes first where the defender has fewest replies,
+ * so forced mates are found after a small part of the tree.
+ * <p>
+ * Mates are tried for 1, 2, ... moves, so the shortest mate is found.
+ * Repetition and fifty move rule are ignored.
+ *
+ * @author ottovodvarka
+ */
+public class MateSolver {
+
+    /**
+     * Longest mate in moves, when no other number is given
+     */
+    public static final int DEFAULT_MAX_MOVES = 8;
+
+    /**
+     * Number of nodes, when no other number is given
+     */
+    public static final long DEFAULT_NODES = 1000000;
+
+    /**
+     * Longest mate, which can be solved
+     */
+    public static final int MAX_MOVES = 63;
+
+    private static final int INFINITY = 100000000;
+
+    //positions with different number of remaining plies are different
+    //entries, so that mates found for more plies are not used for less
+    private static final long[] REMAINING_KEYS = new long[2 * MAX_MOVES];
+
+    static {
+        Random random = new Random(0x6d617465L);
+        for (int i = 0; i < REMAINING_KEYS.length; i++) {
+            REMAINING_KEYS[i] = random.nextLong();
+        }
+    }
+
+    private final ProofTable table;
+    private Board board;
+    private long nodes;
+    private long nodeLimit;
+    private volatile boolean stopped;
+    private boolean aborted;
+    private int rootPlies;
+    private Move rootMove;
+
+    //numbers of the last searched node
+    private int proof;
+    private int disproof;
+    private int distance;
+
+    public MateSolver() {
+        this(new ProofTable());
+    }
+
+    /**
+     *
+     * @param table table of proof numbers, kept between positions
+     */
+    public MateSolver(ProofTable table) {
+        this.table = table;
+    }
+
+    /**
+     * Finds the shortest mate of side to move. Board is used by solver and
+     * left in original position.
+     *
+     * @param board position, side to move is the attacker
+     * @param maxMoves longest mate in moves of the attacker
+     * @param nodeLimit maximal number of nodes, zero is unlimited
+     * @return mating move with score of mate and the mating line, move is null
+     * if there is no mate within maxMoves or the limit was reached first
+     */
+    public SearchResult solve(Board board, int maxMoves, long nodeLimit) {
+        if (maxMoves < 1 || maxMoves > MAX_MOVES) {
+            throw new IllegalArgumentException("Moves must be between 1 and " + MAX_MOVES + ": " + maxMoves);
+        }
+        this.board = board;
+        this.nodeLimit = nodeLimit > 0 ? nodeLimit : Long.MAX_VALUE;
+        nodes = 0;
+        aborted = false;
+        long startTime = System.currentTimeMillis();
+        try {
+            for (int moves = 1; moves <= maxMoves && !aborted; moves++) {
+                rootPlies = 2 * moves - 1;
+                search(rootPlies, true, INFINITY, INFINITY);
+                if (proof == 0) {
+                    List<Move> line = new ArrayList<>();
+                    String san = buildMatingLine(line);
+                    SearchResult result = new SearchResult(rootMove, Search.MATE - distance, distance, nodes,
+                            System.currentTimeMillis() - startTime);
+                    result.setPrincipalVariation(line, san);
+                    return result;
+                }
+            }
+            return new SearchResult(null, 0, 0, nodes, System.currentTimeMillis() - startTime);
+        } finally {
+            //stop ends only this solving, the solver can be used again
+            stopped = false;
+        }
+    }
+
+    /**
+     * Searches position on board until its proof number reaches proof
+     * threshold or its disproof number reaches disproof threshold. Results
+     * are left in fields and stored in table.
+     *
+     * @param remaining plies left to the attacker and defender
+     * @param attacker true if attacker is on move
+     */
+    private void search(int remaining, boolean attacker, int proofThreshold, int disproofThreshold) {
+        long key = board.getHash() ^ REMAINING_KEYS[remaining];
+        long startNodes = nodes;
+        Color side = board.getSideToMove();
+        List<Move> moves = board.getAllLegalMovesByColor(side);
+        if (moves.isEmpty()) {
+            //defender is mated, attacker cannot mate anymore
+            if (!attacker && board.isInCheck(side)) {
+                setResult(0, INFINITY, 0);
+            } else {
+                setResult(INFINITY, 0, 0);
+            }
+            table.store(key, proof, disproof, distance, 1);
+            return;
+        }
+
+        int[] proofs = new int[moves.size()];
+        int[] disproofs = new int[moves.size()];
+        int[] distances = new int[moves.size()];
+        for (int i = 0; i < moves.size(); i++) {
+            board.makeMove(moves.get(i));
+            nodes++;
+            evaluateChild(remaining - 1, !attacker);
+            board.undoMove();
+            proofs[i] = proof;
+            disproofs[i] = disproof;
+            distances[i] = distance;
+        }
+
+        while (true) {
+            //attacker needs one proved move, defender needs one disproved move
+            int[] minimized = attacker ? proofs : disproofs;
+            int[] summed = attacker ? disproofs : proofs;
+            int best = 0;
+            int second = INFINITY;
+            int sum = 0;
+            for (int i = 0; i < moves.size(); i++) {
+                if (minimized[i] < minimized[best]) {
+                    second = minimized[best];
+                    best = i;
+                } else if (i != best && minimized[i] < second) {
+                    second = minimized[i];
+                }
+                sum = Math.min(INFINITY, sum + summed[i]);
+            }
+            int nodeProof = attacker ? minimized[best] : sum;
+            int nodeDisproof = attacker ? sum : minimized[best];
+            if (nodeProof >= proofThreshold || nodeDisproof >= disproofThreshold || aborted) {
+                int mating = nodeProof == 0 ? getMatingMove(attacker, proofs, distances) : -1;
+                setResult(nodeProof, nodeDisproof, mating >= 0 ? distances[mating] + 1 : 0);
+                if (mating >= 0 && remaining == rootPlies) {
+                    rootMove = moves.get(mating);
+                }
+                break;
+            }
+
+            int childProofThreshold;
+            int childDisproofThreshold;
+            if (attacker) {
+                childProofThreshold = Math.min(proofThreshold, second + 1);
+                childDisproofThreshold = disproofThreshold - nodeDisproof + disproofs[best];
+            } else {
+                childProofThreshold = proofThreshold - nodeProof + proofs[best];
+                childDisproofThreshold = Math.min(disproofThreshold, second + 1);
+            }
+            board.makeMove(moves.get(best));
+            nodes++;
+            if (stopped || nodes >= nodeLimit) {
+                aborted = true;
+            } else {
+                search(remaining - 1, !attacker, childProofThreshold, childDisproofThreshold);
+                proofs[best] = proof;
+                disproofs[best] = disproof;
+                distances[best] = distance;
+            }
+            board.undoMove();
+        }
+        table.store(key, proof, disproof, distance, nodes - startNodes + 1);
+    }
+
+    /**
+     * Sets numbers of position after a move, from table or by cheap
+     * evaluation of a new position
+     */
+    private void evaluateChild(int remaining, boolean attacker) {
+        long key = board.getHash() ^ REMAINING_KEYS[remaining];
+        int index = table.probe(key);
+        if (index >= 0) {
+            setResult(table.getProof(index), table.getDisproof(index), table.getDistance(index));
+            return;
+        }
+        Color side = board.getSideToMove();
+        if (attacker) {
+            if (remaining == 0) {
+                setResult(INFINITY, 0, 0);
+            } else {
+                setResult(1, 1, 0);
+            }
+        } else {
+            //only a check can mate, checks are searched first
+            boolean check = board.isInCheck(side);
+            if (check && !board.hasLegalMove(side)) {
+                setResult(0, INFINITY, 0);
+            } else if (remaining == 0) {
+                setResult(INFINITY, 0, 0);
+            } else {
+                setResult(check ? 1 : 2, 1, 0);
+            }
+        }
+        table.store(key, proof, disproof, distance, 1);
+    }
+
+    /**
+     * Attacker chooses the shortest mate, defender the longest one
+     *
+     * @return index of the chosen move of proved position
+     */
+    private static int getMatingMove(boolean attacker, int[] proofs, int[] distances) {
+        int result = -1;
+        for (int i = 0; i < proofs.length; i++) {
+            if (proofs[i] == 0 && (result < 0
+                    || (attacker ? distances[i] < distances[result] : distances[i] > distances[result]))) {
+                result = i;
+            }
+        }
+        return result;
+    }
+
+    private void setResult(int proof, int disproof, int distance) {
+        this.proof = proof;
+        this.disproof = disproof;
+        this.distance = distance;
+    }
+
+    /**
+     * Follows proved positions from table, attacker plays the shortest mate
+     * and defender the longest defence. Line ends early, when its positions
+     * were replaced in table.
+     *
+     * @return mating line in SAN
+     */
+    private String buildMatingLine(List<Move> line) {
+        StringBuilder san = new StringBuilder(San.toSan(board, rootMove));
+        line.add(rootMove);
+        board.makeMove(rootMove);
+        boolean attacker = false;
+        for (int remaining = rootPlies - 1; remaining > 0; remaining--) {
+            Move chosen = null;
+            int chosenDistance = 0;
+            for (Move move : board.getAllLegalMovesByColor(board.getSideToMove())) {
+                board.makeMove(move);
+                int index = table.probe(board.getHash() ^ REMAINING_KEYS[remaining - 1]);
+                board.undoMove();
+                if (index < 0 || table.getProof(index) != 0) {
+                    continue;
+                }
+                int moveDistance = table.getDistance(index);
+                if (chosen == null || (attacker ? moveDistance < chosenDistance : moveDistance > chosenDistance)) {
+                    chosen = move;
+                    chosenDistance = moveDistance;
+                }
+            }
+            if (chosen == null) {
+                break;
+            }
+            san.append(' ').append(San.toSan(board, chosen));
+            line.add(chosen);
+            board.makeMove(chosen);
+            attacker = !attacker;
+        }
+        for (int i = 0; i < line.size(); i++) {
+            board.undoMove();
+        }
+        return san.toString();
+    }
+
+    /**
+     * Stops solving, solve returns no mate. Can be called by another thread,
+     * also before solve is started, then the next solving is stopped. Later
+     * solving is not affected.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     *
+     * @return number of nodes searched so far
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    public ProofTable getTable() {
+        return table;
+    }
+
+}
@@ -0,0 +1,599 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package model.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import model.chess.Board;
+import model.chess.Color;
+import model.chess.Coordinate;
+import model.chess.GamePhase;
+import model.chess.Move;
+import model.chess.San;
+
+/**
+ * Monte Carlo tree search. Each playout walks the tree by UCT, expands the
+ * reached leaf and scores it by evaluation, optionally after a short
+ * playout of random moves guided by evaluation. The best move is the most
+ * visited one.
+ * <p>
+ * Nodes are kept in preallocated arrays, children of a node in one block,
+ * so even millions of nodes are invisible to garbage collector. Threads
+ * share the tree without locks. A thread expanding a node claims it by
+ * compare and set, and each thread adds virtual loss to nodes on its path,
+ * so that other threads choose other lines meanwhile.
+ * <p>
+ * Tree is kept between searches. When the new position follows from the
+ * previous one by one or two moves, search continues in its subtree.
+ *
+ * @author ottovodvarka
+ */
+public class MonteCarloSearch {
+
+    /**
+     * Size of tree in megabytes, when no other size is given
+     */
+    public static final int DEFAULT_SIZE_MB = 32;
+
+    //bytes of all arrays per node
+    private static final int NODE_SIZE = 29;
+
+    private static final double EXPLORATION = 1.0;
+    private static final int VIRTUAL_LOSS = 1;
+    //values are summed in fixed point
+    private static final double VALUE_SCALE = 1 << 16;
+    //scale of logistic function converting centipawns to expected result
+    private static final double SCORE_SCALE = 400;
+
+    private static final int UNEXPANDED = 0;
+    private static final int EXPANDING = 1;
+    private static final int EXPANDED = 2;
+
+    //results of terminal nodes for side to move
+    private static final byte LOST = 1;
+    private static final byte DRAWN = 2;
+
+    private final Evaluation evaluation;
+    private final int threads;
+    private final int capacity;
+
+    private final int[] moves;
+    private final int[] firstChildren;
+    private final int[] childCounts;
+    private final byte[] results;
+    private final AtomicIntegerArray states;
+    private final AtomicIntegerArray visits;
+    private final AtomicLongArray values;
+    private final AtomicInteger size = new AtomicInteger();
+
+    private int root = -1;
+    private Board rootBoard;
+    private int rolloutPlies;
+
+    private final AtomicLong playouts = new AtomicLong();
+    private long playoutLimit;
+    private long deadline;
+    private volatile boolean stopped;
+    //end of the current search, for worker threads
+    private volatile boolean finished;
+
+    /**
+     *
+     * @param evaluation evaluation of leaf positions
+     * @param threads number of threads including the calling one
+     */
+    public MonteCarloSearch(Evaluation evaluation, int threads) {
+        this(evaluation, threads, DEFAULT_SIZE_MB);
+    }
+
+    /**
+     *
+     * @param evaluation evaluation of leaf positions
+     * @param threads number of threads including the calling one
+     * @param sizeMb memory of tree in megabytes
+     */
+    public MonteCarloSearch(Evaluation evaluation, int threads, long sizeMb) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one thread is needed: " + threads);
+        }
+        if (sizeMb <= 0 || sizeMb > 16384) {
+            throw new IllegalArgumentException("Size of tree must be between 1 and 16384 MB: " + sizeMb);
+        }
+        this.evaluation = evaluation;
+        this.threads = threads;
+        capacity = (int) (sizeMb * 1024 * 1024 / NODE_SIZE);
+        moves = new int[capacity];
+        firstChildren = new int[capacity];
+        childCounts = new int[capacity];
+        results = new byte[capacity];
+        states = new AtomicIntegerArray(capacity);
+        visits = new AtomicIntegerArray(capacity);
+        values = new AtomicLongArray(capacity);
+    }
+
+    /**
+     * Runs playouts until limits are reached. Depth is not limited, nodes
+     * limit the number of playouts. Board is used by the calling thread and
+     * left in original position.
+     *
+     * @param board position, side to move is searched
+     * @param limits limits of search
+     * @return most visited move, its score and the most visited line
+     */
+    public SearchResult search(Board board, SearchLimits limits) {
+        long startTime = System.currentTimeMillis();
+        finished = false;
+        playouts.set(0);
+        playoutLimit = limits.getNodes() > 0 ? limits.getNodes() : Long.MAX_VALUE;
+        deadline = limits.getTime() > 0 ? startTime + limits.getTime() : Long.MAX_VALUE;
+        if (limits.getRemainingTime() > 0) {
+            TimeManager timeManager = new TimeManager(limits.getRemainingTime(), GamePhase.of(board));
+            deadline = Math.min(deadline, startTime + timeManager.getOptimumTime());
+        }
+        prepareRoot(board);
+
+        Thread[] workers = new Thread[threads - 1];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = createWorker(new Board(board), i + 1);
+            workers[i].start();
+        }
+        try {
+            runPlayouts(board, new Random(0));
+        } finally {
+            finished = true;
+            joinAll(workers);
+        }
+        return createResult(board, startTime);
+    }
+
+    private Thread createWorker(final Board board, final int index) {
+        Thread worker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                runPlayouts(board, new Random(index));
+            }
+        }, "monte-carlo-" + index);
+        worker.setDaemon(true);
+        return worker;
+    }
+
+    private static void joinAll(Thread[] workers) {
+        boolean interrupted = false;
+        for (Thread worker : workers) {
+            while (worker.isAlive()) {
+                try {
+                    worker.join();
+                } catch (InterruptedException ex) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Continues in subtree of the new position if possible, the subtree is
+     * moved to the start of arrays then. Otherwise the tree is cleared.
+     */
+    private void prepareRoot(Board board) {
+        int next = root >= 0 ? findSubtree(board.getHash()) : -1;
+        if (next < 0) {
+            size.set(0);
+            initNode(allocate(1), 0);
+        } else {
+            compact(next);
+        }
+        root = 0;
+        rootBoard = new Board(board);
+    }
+
+    /**
+     * Moves subtree of node to the start of arrays, other nodes are freed.
+     * Child blocks are always allocated after their parent, so when blocks
+     * are moved in order of their old positions, each block moves down to
+     * space, which is already free.
+     */
+    private void compact(int node) {
+        //blocks of children in the subtree as old position and parent
+        long[] blocks = new long[64];
+        int blockCount = 0;
+        int[] stack = new int[64];
+        int top = 0;
+        stack[top++] = node;
+        while (top > 0) {
+            int parent = stack[--top];
+            int count = getChildCount(parent);
+            if (count == 0) {
+                continue;
+            }
+            if (blockCount == blocks.length) {
+                blocks = Arrays.copyOf(blocks, blockCount * 2);
+            }
+            blocks[blockCount++] = (long) firstChildren[parent] << 32 | parent;
+            if (top + count > stack.length) {
+                stack = Arrays.copyOf(stack, Math.max(stack.length * 2, top + count));
+            }
+            for (int i = 0; i < count; i++) {
+                stack[top++] = firstChildren[parent] + i;
+            }
+        }
+        Arrays.sort(blocks, 0, blockCount);
+
+        int[] oldFirsts = new int[blockCount];
+        int[] newFirsts = new int[blockCount];
+        copyNode(node, 0);
+        int next = 1;
+        for (int i = 0; i < blockCount; i++) {
+            int oldFirst = (int) (blocks[i] >>> 32);
+            int oldParent = (int) blocks[i];
+            int newParent = oldParent == node ? 0 : findNewIndex(oldParent, oldFirsts, newFirsts, i);
+            int count = childCounts[newParent];
+            for (int j = 0; j < count; j++) {
+                copyNode(oldFirst + j, next + j);
+            }
+            firstChildren[newParent] = next;
+            oldFirsts[i] = oldFirst;
+            newFirsts[i] = next;
+            next += count;
+        }
+        size.set(next);
+    }
+
+    /**
+     * Parent was moved before its children, its block is found by binary
+     * search in blocks moved so far
+     */
+    private static int findNewIndex(int oldIndex, int[] oldFirsts, int[] newFirsts, int moved) {
+        int block = Arrays.binarySearch(oldFirsts, 0, moved, oldIndex);
+        if (block < 0) {
+            block = -block - 2;
+        }
+        return newFirsts[block] + oldIndex - oldFirsts[block];
+    }
+
+    private void copyNode(int from, int to) {
+        moves[to] = moves[from];
+        firstChildren[to] = firstChildren[from];
+        childCounts[to] = childCounts[from];
+        results[to] = results[from];
+        visits.set(to, visits.get(from));
+        values.set(to, values.get(from));
+        states.set(to, states.get(from));
+    }
+
+    /**
+     *
+     * @return node of position after at most two moves from the root, -1 if
+     * it is not in tree
+     */
+    private int findSubtree(long hash) {
+        if (rootBoard.getHash() == hash) {
+            return root;
+        }
+        int found = -1;
+        for (int i = 0; i < getChildCount(root) && found < 0; i++) {
+            int child = firstChildren[root] + i;
+            rootBoard.makeMove(toMove(rootBoard, moves[child]));
+            if (rootBoard.getHash() == hash) {
+                found = child;
+            }
+            for (int j = 0; j < getChildCount(child) && found < 0; j++) {
+                int grandchild = firstChildren[child] + j;
+                rootBoard.makeMove(toMove(rootBoard, moves[grandchild]));
+                if (rootBoard.getHash() == hash) {
+                    found = grandchild;
+                }
+                rootBoard.undoMove();
+            }
+            rootBoard.undoMove();
+        }
+        return found;
+    }
+
+    /**
+     *
+     * @return number of children, zero if node is not expanded yet
+     */
+    private int getChildCount(int node) {
+        return states.get(node) == EXPANDED ? childCounts[node] : 0;
+    }
+
+    private void runPlayouts(Board board, Random random) {
+        int[] path = new int[Search.MAX_DEPTH * 4];
+        //at least one playout, so that a move is found
+        do {
+            playout(board, path, random);
+        } while (!finished && !stopped && playouts.incrementAndGet() < playoutLimit
+                && System.currentTimeMillis() < deadline);
+        finished = true;
+    }
+
+    private void playout(Board board, int[] path, Random random) {
+        int node = root;
+        int depth = 0;
+        path[0] = node;
+        visits.addAndGet(node, VIRTUAL_LOSS);
+        while (getChildCount(node) > 0 && depth < path.length - 1) {
+            node = select(node);
+            board.makeMove(toMove(board, moves[node]));
+            path[++depth] = node;
+            visits.addAndGet(node, VIRTUAL_LOSS);
+        }
+
+        double value;
+        if (states.compareAndSet(node, UNEXPANDED, EXPANDING)) {
+            expand(node, board);
+        }
+        if (states.get(node) == EXPANDED && childCounts[node] == 0) {
+            value = results[node] == LOST ? 0 : 0.5;
+        } else {
+            value = rolloutPlies > 0 ? rollout(board, random) : toValue(evaluation.evaluate(board));
+        }
+        for (int i = 0; i < depth; i++) {
+            board.undoMove();
+        }
+
+        //value of node is for the player, who moved to it
+        double result = 1 - value;
+        for (int i = depth; i >= 0; i--) {
+            values.addAndGet(path[i], (long) (result * VALUE_SCALE));
+            visits.addAndGet(path[i], 1 - VIRTUAL_LOSS);
+            result = 1 - result;
+        }
+    }
+
+    /**
+     * UCT, nodes visited by other threads count as lost until their playouts
+     * finish
+     */
+    private int select(int node) {
+        int first = firstChildren[node];
+        double logVisits = Math.log(Math.max(1, visits.get(node)));
+        int best = first;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (int child = first; child < first + childCounts[node]; child++) {
+            int childVisits = visits.get(child);
+            if (childVisits == 0) {
+                return child;
+            }
+            double score = values.get(child) / VALUE_SCALE / childVisits
+                    + EXPLORATION * Math.sqrt(logVisits / childVisits);
+            if (score > bestScore) {
+                bestScore = score;
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Adds children of node claimed by this thread. When the tree is full,
+     * the node stays a leaf.
+     */
+    private void expand(int node, Board board) {
+        Color side = board.getSideToMove();
+        List<Move> legalMoves = board.getAllLegalMovesByColor(side);
+        if (legalMoves.isEmpty()) {
+            results[node] = board.isInCheck(side) ? LOST : DRAWN;
+            childCounts[node] = 0;
+            states.set(node, EXPANDED);
+            return;
+        }
+        int first = allocate(legalMoves.size());
+        if (first < 0) {
+            states.set(node, UNEXPANDED);
+            return;
+        }
+        for (int i = 0; i < legalMoves.size(); i++) {
+            initNode(first + i, TranspositionTable.packMove(legalMoves.get(i)));
+        }
+        firstChildren[node] = first;
+        childCounts[node] = legalMoves.size();
+        //children are visible to other threads after this write
+        states.set(node, EXPANDED);
+    }
+
+    /**
+     *
+     * @return index of the first of count nodes, -1 if the tree is full
+     */
+    private int allocate(int count) {
+        if (size.get() + count > capacity) {
+            return -1;
+        }
+        int first = size.getAndAdd(count);
+        return first + count <= capacity ? first : -1;
+    }
+
+    private void initNode(int node, int move) {
+        moves[node] = move;
+        childCounts[node] = 0;
+        results[node] = 0;
+        visits.set(node, 0);
+        values.set(node, 0);
+        states.set(node, UNEXPANDED);
+    }
+
+    /**
+     * Plays random moves, from two legal moves the one better by evaluation
+     * is chosen
+     *
+     * @return expected result for side to move at the start of rollout
+     */
+    private double rollout(Board board, Random random) {
+        Color side = board.getSideToMove();
+        int plies = 0;
+        double value = -1;
+        while (plies < rolloutPlies) {
+            Move move = chooseRolloutMove(board, random);
+            if (move == null) {
+                value = board.isInCheck(board.getSideToMove()) ? 0 : 0.5;
+                break;
+            }
+            board.makeMove(move);
+            plies++;
+        }
+        if (value < 0) {
+            value = toValue(evaluation.evaluate(board));
+        }
+        if (board.getSideToMove() != side) {
+            value = 1 - value;
+        }
+        for (int i = 0; i < plies; i++) {
+            board.undoMove();
+        }
+        return value;
+    }
+
+    private Move chooseRolloutMove(Board board, Random random) {
+        Color side = board.getSideToMove();
+        List<Move> available = board.getAllAvailableMovesByColor(side);
+        Move best = null;
+        int bestScore = Integer.MAX_VALUE;
+        int samples = 0;
+        int start = available.isEmpty() ? 0 : random.nextInt(available.size());
+        for (int i = 0; i < available.size() && samples < 2; i++) {
+            Move move = available.get((start + i) % available.size());
+            board.makeMove(move);
+            if (!board.isInCheck(side)) {
+                samples++;
+                //score of opponent, which is on move
+                int score = evaluation.evaluate(board);
+                if (score < bestScore) {
+                    bestScore = score;
+                    best = move;
+                }
+            }
+            board.undoMove();
+        }
+        return best;
+    }
+
+    /**
+     *
+     * @return expected result between 0 and 1
+     */
+    private static double toValue(int score) {
+        return 1 / (1 + Math.pow(10, -score / SCORE_SCALE));
+    }
+
+    private static int toScore(double value) {
+        double clamped = Math.min(0.999, Math.max(0.001, value));
+        return (int) Math.round(-SCORE_SCALE * Math.log10(1 / clamped - 1));
+    }
+
+    private static Move toMove(Board board, int packed) {
+        int start = packed >>> 6;
+        int end = packed & 63;
+        return new Move(board, new Coordinate(start % 8, start / 8), new Coordinate(end % 8, end / 8));
+    }
+
+    private SearchResult createResult(Board board, long startTime) {
+        List<Move> line = new ArrayList<>();
+        StringBuilder san = new StringBuilder();
+        int node = root;
+        int rootChild = -1;
+        while (getChildCount(node) > 0) {
+            int best = -1;
+            for (int child = firstChildren[node]; child < firstChildren[node] + childCounts[node]; child++) {
+                if (visits.get(child) > 0 && (best < 0 || visits.get(child) > visits.get(best))) {
+                    best = child;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            Move move = toMove(board, moves[best]);
+            if (san.length() > 0) {
+                san.append(' ');
+            }
+            san.append(San.toSan(board, move));
+            line.add(move);
+            board.makeMove(move);
+            if (node == root) {
+                rootChild = best;
+            }
+            node = best;
+        }
+        for (int i = 0; i < line.size(); i++) {
+            board.undoMove();
+        }
+
+        long time = System.currentTimeMillis() - startTime;
+        if (line.isEmpty()) {
+            return new SearchResult(null, 0, 0, playouts.get(), time);
+        }
+        int score = toScore(values.get(rootChild) / VALUE_SCALE / visits.get(rootChild));
+        SearchResult result = new SearchResult(line.get(0), score, line.size(), playouts.get(), time);
+        result.setStats(new SearchStats());
+        result.setPrincipalVariation(line, san.toString());
+        return result;
+    }
+
+    /**
+     * Stops all threads, search returns the most visited move so far. Later
+     * searches return after a single playout, the tree can be still read.
+     * Can be called from another thread, also before search is started.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     *
+     * @return number of nodes in tree including nodes outside of the current
+     * subtree
+     */
+    public int getSize() {
+        return Math.min(size.get(), capacity);
+    }
+
+    /**
+     *
+     * @return maximal number of nodes
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     *
+     * @return visits of the current root, including ones of previous searches
+     */
+    public int getRootVisits() {
+        return root >= 0 ? visits.get(root) : 0;
+    }
+
+    public int getRolloutPlies() {
+        return rolloutPlies;
+    }
+
+    /**
+     *
+     * @param rolloutPlies plies of random moves played before evaluation,
+     * zero evaluates the leaf directly
+     */
+    public void setRolloutPlies(int rolloutPlies) {
+        this.rolloutPlies = rolloutPlies;
+    }
+
+    /**
+     *
+     * @return number of threads including the calling one
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+}
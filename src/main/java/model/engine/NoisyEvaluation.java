@@ -0,0 +1,58 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package model.engine;
+
+import model.chess.Board;
+
+/**
+ * Evaluation with pseudo-random error, used by weaker computer players. The
+ * error is derived from hash of position, so the same position has always
+ * the same score and the search stays consistent. Scores differ from the
+ * ones of other evaluations, so the transposition table must not be shared
+ * with them.
+ *
+ * @author ottovodvarka
+ */
+public class NoisyEvaluation implements Evaluation {
+
+    private final Evaluation evaluation;
+    private final int noise;
+    private final long seed;
+
+    /**
+     *
+     * @param evaluation exact evaluation
+     * @param noise maximal error in centipawns
+     * @param seed seed of error
+     */
+    public NoisyEvaluation(Evaluation evaluation, int noise, long seed) {
+        if (noise < 0) {
+            throw new IllegalArgumentException("Noise must not be negative: " + noise);
+        }
+        this.evaluation = evaluation;
+        this.noise = noise;
+        this.seed = seed;
+    }
+
+    @Override
+    public int evaluate(Board board) {
+        return evaluation.evaluate(board) + error(board.getHash());
+    }
+
+    private int error(long hash) {
+        //finalizer of splitmix64, spreads similar hashes
+        long z = hash ^ seed;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        z = z ^ (z >>> 31);
+        return (int) ((z >>> 1) % (2 * noise + 1)) - noise;
+    }
+
+    public int getNoise() {
+        return noise;
+    }
+
+}
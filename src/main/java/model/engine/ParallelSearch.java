@@ -0,0 +1,187 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package model.engine;
+
+import model.chess.Board;
+
+/**
+ * Lazy SMP search. Main search runs in calling thread and helper threads
+ * search the same position on their own copies of board. Threads share only
+ * the transposition table, so helpers speed up the main search by filling it.
+ * Result of the main search is returned.
+ *
+ * @author ottovodvarka
+ */
+public class ParallelSearch {
+
+    /**
+     * Number of threads, when no other number is given, can be set by system
+     * property chess.threads
+     */
+    public static final int DEFAULT_THREADS = Integer.getInteger("chess.threads",
+            Runtime.getRuntime().availableProcessors());
+
+    private final Evaluation evaluation;
+    private final TranspositionTable table;
+    private final int threads;
+    private SearchOptions options = new SearchOptions();
+    private SearchListener listener;
+
+    private volatile Search[] searches = new Search[0];
+    private volatile boolean stopped;
+    private volatile boolean ponderHit;
+
+    /**
+     *
+     * @param evaluation evaluation of leaf positions
+     * @param table table shared by all threads
+     * @param threads number of threads including the calling one
+     */
+    public ParallelSearch(Evaluation evaluation, TranspositionTable table, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one thread is needed: " + threads);
+        }
+        this.evaluation = evaluation;
+        this.table = table;
+        this.threads = threads;
+    }
+
+    /**
+     * Searches position until limits of main search are reached, helpers are
+     * stopped then. Board is used by main search and left in original
+     * position.
+     *
+     * @param board position, side to move is searched
+     * @param limits limits of main search
+     * @return result of main search with nodes of all threads
+     */
+    public SearchResult search(Board board, SearchLimits limits) {
+        table.newSearch();
+        Search main = new Search(evaluation, table);
+        main.setOptions(options);
+        main.setListener(listener);
+        Search[] helpers = new Search[threads - 1];
+        Thread[] workers = new Thread[threads - 1];
+        SearchLimits helperLimits = new SearchLimits(limits.getDepth(), 0, 0);
+        for (int i = 0; i < helpers.length; i++) {
+            helpers[i] = new Search(evaluation, table);
+            helpers[i].setHelperIndex(i + 1);
+            helpers[i].setOptions(options);
+            workers[i] = createWorker(helpers[i], new Board(board), helperLimits, i + 1);
+        }
+
+        Search[] all = new Search[threads];
+        all[0] = main;
+        System.arraycopy(helpers, 0, all, 1, helpers.length);
+        searches = all;
+        if (stopped) {
+            main.stop();
+        }
+        if (ponderHit) {
+            main.ponderHit();
+        }
+
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        SearchResult result;
+        try {
+            result = main.search(board, limits);
+        } finally {
+            for (Search helper : helpers) {
+                helper.stop();
+            }
+            joinAll(workers);
+        }
+
+        long nodes = result.getNodes();
+        SearchStats stats = new SearchStats();
+        stats.add(result.getStats());
+        for (Search helper : helpers) {
+            nodes += helper.getNodes();
+            stats.add(helper.getStats());
+        }
+        SearchResult total = new SearchResult(result.getMove(), result.getScore(), result.getDepth(), nodes, result.getTime());
+        total.setStats(stats);
+        total.setPrincipalVariation(result.getPrincipalVariation(), result.getPrincipalVariationSan());
+        total.setLines(result.getLines());
+        return total;
+    }
+
+    private static Thread createWorker(final Search helper, final Board board, final SearchLimits limits, int index) {
+        Thread worker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                helper.search(board, limits);
+            }
+        }, "search-helper-" + index);
+        worker.setDaemon(true);
+        return worker;
+    }
+
+    private static void joinAll(Thread[] workers) {
+        boolean interrupted = false;
+        for (Thread worker : workers) {
+            while (worker.isAlive()) {
+                try {
+                    worker.join();
+                } catch (InterruptedException ex) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Stops all threads, search returns result of the last finished iteration
+     * of main search
+     */
+    public void stop() {
+        stopped = true;
+        for (Search search : searches) {
+            search.stop();
+        }
+    }
+
+    /**
+     * Ponder search of main thread continues as a normal search, helpers have
+     * no time limits and are stopped with it
+     */
+    public void ponderHit() {
+        ponderHit = true;
+        for (Search search : searches) {
+            search.ponderHit();
+        }
+    }
+
+    public SearchOptions getOptions() {
+        return options;
+    }
+
+    public void setOptions(SearchOptions options) {
+        this.options = options;
+    }
+
+    /**
+     *
+     * @param listener notified by main search after each finished iteration
+     */
+    public void setListener(SearchListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     *
+     * @return number of threads including the calling one
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+}
@@ -0,0 +1,361 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package model.engine;
+
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import model.chess.Board;
+import model.chess.Color;
+import model.chess.Fen;
+import model.chess.Move;
+import model.pieces.Piece;
+import model.pieces.PieceType;
+
+/**
+ * Headless simulator playing complete games of random moves from a start
+ * position on all threads. Each move goes through legal move generation and
+ * moveTo, so the simulator measures throughput of the rules. Guided games
+ * choose the better of two random moves by evaluation.
+ * <p>
+ * Game number i is played with random seed derived from i, so results do
+ * not depend on number of threads.
+ *
+ * @author ottovodvarka
+ */
+public class PlayoutSimulator {
+
+    /**
+     * Number of games, when no other number is given
+     */
+    public static final int DEFAULT_GAMES = 1000;
+
+    /**
+     * Games are stopped after this number of plies
+     */
+    public static final int MAX_PLIES = 1000;
+
+    //plies without capture or pawn move, which make a draw
+    private static final int FIFTY_MOVES = 100;
+
+    /**
+     * How the game ended
+     */
+    public enum Outcome {
+        WHITE_WINS, BLACK_WINS, STALEMATE, FIFTY_MOVES, REPETITION, INSUFFICIENT_MATERIAL, MAX_PLIES
+    }
+
+    private final String startFen;
+    private final int threads;
+    private Evaluation guide;
+    private long seed;
+
+    /**
+     *
+     * @param startFen position, where all games start
+     * @param threads number of threads playing games
+     */
+    public PlayoutSimulator(String startFen, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one thread is needed: " + threads);
+        }
+        this.startFen = startFen;
+        this.threads = threads;
+    }
+
+    /**
+     * Results of simulation
+     */
+    public static class Report {
+
+        private final AtomicLongArray outcomes = new AtomicLongArray(Outcome.values().length);
+        private final AtomicLongArray plies = new AtomicLongArray(1);
+        private long time;
+
+        private void add(Outcome outcome, int gamePlies) {
+            outcomes.incrementAndGet(outcome.ordinal());
+            plies.addAndGet(0, gamePlies);
+        }
+
+        public long getGames() {
+            long games = 0;
+            for (int i = 0; i < outcomes.length(); i++) {
+                games += outcomes.get(i);
+            }
+            return games;
+        }
+
+        public long getCount(Outcome outcome) {
+            return outcomes.get(outcome.ordinal());
+        }
+
+        /**
+         *
+         * @return plies of all games
+         */
+        public long getPlies() {
+            return plies.get(0);
+        }
+
+        /**
+         *
+         * @return average length of game in plies
+         */
+        public double getAverageLength() {
+            return getGames() == 0 ? 0 : (double) getPlies() / getGames();
+        }
+
+        /**
+         *
+         * @return time of simulation in milliseconds
+         */
+        public long getTime() {
+            return time;
+        }
+
+        public double getGamesPerSecond() {
+            return getGames() * 1000.0 / Math.max(1, time);
+        }
+
+        public double getPliesPerSecond() {
+            return getPlies() * 1000.0 / Math.max(1, time);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder();
+            text.append(String.format("Games           : %d%n", getGames()));
+            text.append(String.format("Total time (ms) : %d%n", time));
+            text.append(String.format("Games/second    : %.1f%n", getGamesPerSecond()));
+            text.append(String.format("Plies/second    : %.0f%n", getPliesPerSecond()));
+            text.append(String.format("Average length  : %.1f plies%n", getAverageLength()));
+            for (Outcome outcome : Outcome.values()) {
+                text.append(String.format("%-22s: %d (%.1f%%)%n", outcome, getCount(outcome),
+                        getGames() == 0 ? 0.0 : 100.0 * getCount(outcome) / getGames()));
+            }
+            return text.toString();
+        }
+
+    }
+
+    /**
+     * Plays games on all threads
+     *
+     * @param games number of games
+     * @return outcomes and speed of games
+     * @throws IllegalStateException when a game fails, with the failure as
+     * its cause
+     */
+    public Report run(final int games) {
+        final Report report = new Report();
+        final AtomicInteger nextGame = new AtomicInteger();
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        long startTime = System.currentTimeMillis();
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    int game;
+                    try {
+                        while (failure.get() == null && (game = nextGame.getAndIncrement()) < games) {
+                            Board board = Fen.parse(startFen);
+                            int historyStart = board.getHistorySize();
+                            Outcome outcome = play(board, new Random(seed + game));
+                            report.add(outcome, board.getHistorySize() - historyStart);
+                        }
+                    } catch (Throwable ex) {
+                        failure.compareAndSet(null, ex);
+                    }
+                }
+            }, "playout-" + i);
+            workers[i].start();
+        }
+        boolean interrupted = false;
+        for (Thread worker : workers) {
+            while (worker.isAlive()) {
+                try {
+                    worker.join();
+                } catch (InterruptedException ex) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure.get() != null) {
+            throw new IllegalStateException("Game failed after " + report.getGames() + " games", failure.get());
+        }
+        report.time = System.currentTimeMillis() - startTime;
+        return report;
+    }
+
+    /**
+     * Plays one game to its end, moves are left on board
+     *
+     * @param board start position
+     * @param random source of moves
+     * @return how the game ended
+     */
+    public Outcome play(Board board, Random random) {
+        //hashes since the last capture or pawn move, for repetitions
+        long[] hashes = new long[FIFTY_MOVES + 1];
+        int reversible = 0;
+        hashes[0] = board.getHash();
+        for (int ply = 0;; ply++) {
+            Color side = board.getSideToMove();
+            List<Move> moves = board.getAllLegalMovesByColor(side);
+            //mate and stalemate by the last move come before draws by rules
+            if (moves.isEmpty()) {
+                if (board.isCheckMate(side)) {
+                    return side == Color.WHITE ? Outcome.BLACK_WINS : Outcome.WHITE_WINS;
+                }
+                return Outcome.STALEMATE;
+            }
+            if (reversible >= FIFTY_MOVES) {
+                return Outcome.FIFTY_MOVES;
+            }
+            if (isThreefoldRepetition(hashes, reversible)) {
+                return Outcome.REPETITION;
+            }
+            if (isInsufficientMaterial(board)) {
+                return Outcome.INSUFFICIENT_MATERIAL;
+            }
+            if (ply == MAX_PLIES) {
+                return Outcome.MAX_PLIES;
+            }
+            Move move = chooseMove(board, moves, random);
+            boolean irreversible = board.getPieceAt(move.getStart()).getType() == PieceType.PAWN
+                    || board.getPieceAt(move.getEnd()) != null;
+            board.moveTo(move);
+            reversible = irreversible ? 0 : reversible + 1;
+            hashes[reversible] = board.getHash();
+        }
+    }
+
+    private Move chooseMove(Board board, List<Move> moves, Random random) {
+        Move move = moves.get(random.nextInt(moves.size()));
+        if (guide == null || moves.size() == 1) {
+            return move;
+        }
+        Move other = moves.get(random.nextInt(moves.size()));
+        //scores of opponent, which is on move after them
+        board.makeMove(move);
+        int score = guide.evaluate(board);
+        board.undoMove();
+        board.makeMove(other);
+        int otherScore = guide.evaluate(board);
+        board.undoMove();
+        return otherScore < score ? other : move;
+    }
+
+    /**
+     * Only positions with the same side to move can repeat, hash includes
+     * castling and en passant rights
+     */
+    private static boolean isThreefoldRepetition(long[] hashes, int last) {
+        int count = 1;
+        for (int i = last - 2; i >= 0; i -= 2) {
+            if (hashes[i] == hashes[last] && ++count == 3) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Kings alone or with a single knight or bishop cannot mate
+     */
+    private static boolean isInsufficientMaterial(Board board) {
+        int minorPieces = 0;
+        for (Color color : Color.values()) {
+            for (Piece piece : board.getAllPiecesbyColor(color)) {
+                switch (piece.getType()) {
+                    case KING:
+                        break;
+                    case KNIGHT:
+                    case BISHOP:
+                        minorPieces++;
+                        break;
+                    default:
+                        return false;
+                }
+            }
+        }
+        return minorPieces <= 1;
+    }
+
+    public Evaluation getGuide() {
+        return guide;
+    }
+
+    /**
+     *
+     * @param guide evaluation choosing the better of two random moves, null
+     * for purely random games
+     */
+    public void setGuide(Evaluation guide) {
+        this.guide = guide;
+    }
+
+    /**
+     *
+     * @param seed seed of the first game
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Usage: PlayoutSimulator [games=n] [threads=n] [seed=n] [guided]
+     * [fen="..."]
+     *
+     * @param args the command line arguments
+     */
+    public static void main(String[] args) {
+        int games = DEFAULT_GAMES;
+        int threads = Runtime.getRuntime().availableProcessors();
+        String fen = Fen.START;
+        boolean guided = false;
+        long seed = 0;
+        for (String arg : args) {
+            String[] option = arg.split("=", 2);
+            switch (option[0]) {
+                case "games":
+                    games = Integer.parseInt(option[1]);
+                    break;
+                case "threads":
+                    threads = Integer.parseInt(option[1]);
+                    break;
+                case "seed":
+                    seed = Long.parseLong(option[1]);
+                    break;
+                case "guided":
+                    guided = true;
+                    break;
+                case "fen":
+                    fen = option[1];
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+        PlayoutSimulator simulator = new PlayoutSimulator(fen, threads);
+        simulator.setSeed(seed);
+        if (guided) {
+            simulator.setGuide(new DefaultEvaluation());
+        }
+        PrintStream out = System.out;
+        out.println("Playing " + games + " " + (guided ? "guided" : "random") + " games, " + threads + " threads");
+        out.println("===========================");
+        out.print(simulator.run(games));
+    }
+
+}
@@ -0,0 +1,128 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package model.engine;
+
+import java.util.Arrays;
+
+/**
+ * Table of proof and disproof numbers used by mate solver. Size of table is
+ * fixed, so solving of hard positions does not run out of memory. Table is
+ * divided into buckets of two entries, a new entry replaces the one with
+ * smaller subtree, which is cheaper to search again.
+ * <p>
+ * Table is used by one thread only.
+ *
+ * @author ottovodvarka
+ */
+public class ProofTable {
+
+    /**
+     * Size of table in megabytes, when no other size is given
+     */
+    public static final int DEFAULT_SIZE_MB = 16;
+
+    //key, proof number, disproof number, distance to mate and work
+    private static final int ENTRY_SIZE = 24;
+
+    private final long[] keys;
+    private final int[] proofs;
+    private final int[] disproofs;
+    private final int[] distances;
+    //number of nodes searched below the entry, empty entries have zero
+    private final int[] works;
+    private final int bucketMask;
+
+    public ProofTable() {
+        this(DEFAULT_SIZE_MB);
+    }
+
+    /**
+     *
+     * @param sizeMb size of table in megabytes
+     */
+    public ProofTable(long sizeMb) {
+        if (sizeMb <= 0 || sizeMb > 8192) {
+            throw new IllegalArgumentException("Size of table must be between 1 and 8192 MB: " + sizeMb);
+        }
+        int entries = Integer.highestOneBit((int) Math.min(Integer.MAX_VALUE, sizeMb * 1024 * 1024 / ENTRY_SIZE));
+        keys = new long[entries];
+        proofs = new int[entries];
+        disproofs = new int[entries];
+        distances = new int[entries];
+        works = new int[entries];
+        bucketMask = entries / 2 - 1;
+    }
+
+    /**
+     *
+     * @param key key of position
+     * @return index of entry or -1 if the position is not in table
+     */
+    public int probe(long key) {
+        int bucket = ((int) key & bucketMask) * 2;
+        if (keys[bucket] == key && works[bucket] > 0) {
+            return bucket;
+        }
+        if (keys[bucket + 1] == key && works[bucket + 1] > 0) {
+            return bucket + 1;
+        }
+        return -1;
+    }
+
+    /**
+     * Stores numbers of position, entry is always written
+     *
+     * @param key key of position
+     * @param proof proof number
+     * @param disproof disproof number
+     * @param distance plies to mate of proved position
+     * @param work number of nodes searched below the position
+     */
+    public void store(long key, int proof, int disproof, int distance, long work) {
+        int bucket = ((int) key & bucketMask) * 2;
+        int index;
+        if (keys[bucket] == key) {
+            index = bucket;
+        } else if (keys[bucket + 1] == key) {
+            index = bucket + 1;
+        } else {
+            index = works[bucket] <= works[bucket + 1] ? bucket : bucket + 1;
+        }
+        keys[index] = key;
+        proofs[index] = proof;
+        disproofs[index] = disproof;
+        distances[index] = distance;
+        works[index] = (int) Math.max(1, Math.min(Integer.MAX_VALUE, work));
+    }
+
+    public int getProof(int index) {
+        return proofs[index];
+    }
+
+    public int getDisproof(int index) {
+        return disproofs[index];
+    }
+
+    public int getDistance(int index) {
+        return distances[index];
+    }
+
+    /**
+     * Removes all entries
+     */
+    public void clear() {
+        Arrays.fill(works, 0);
+    }
+
+    /**
+     *
+     * @return number of entries
+     */
+    public int getSize() {
+        return keys.length;
+    }
+
+}
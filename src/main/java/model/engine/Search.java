@@ -0,0 +1,897 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package model.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import model.chess.Board;
+import model.chess.Color;
+import model.chess.GamePhase;
+import model.chess.Move;
+import model.chess.San;
+import model.pieces.Piece;
+import model.pieces.PieceType;
+
+/**
+ * Negamax search with alpha-beta pruning. Board is changed by makeMove and
+ * undoMove during search and is left in original position at the end.
+ *
+ * @author ottovodvarka
+ */
+public class Search {
+
+    /**
+     * Score of mate at the root, mate in n plies has score MATE - n
+     */
+    public static final int MATE = 30000;
+
+    /**
+     * Scores above this value are mates
+     */
+    public static final int MATE_BOUND = MATE - 1000;
+
+    /**
+     * Bigger than any score
+     */
+    public static final int INFINITY = MATE + 1;
+
+    /**
+     * Maximal depth of search
+     */
+    public static final int MAX_DEPTH = 64;
+
+    //limits are checked once per this number of nodes, stop and node limit
+    //on every node, so that stopped search returns within a node
+    private static final int CHECK_INTERVAL = 2048;
+
+    //margin of delta pruning in quiescence search, for positional gains
+    private static final int DELTA_MARGIN = 200;
+
+    //deepest ply including quiescence search
+    private static final int MAX_PLY = 128;
+    private static final int MAX_MOVES = 256;
+
+    //order of moves: hash move, captures, killers, counter move, history,
+    //captures losing material
+    private static final int HASH_MOVE_SCORE = 2000000;
+    private static final int CAPTURE_SCORE = 1000000;
+    private static final int LOSING_CAPTURE_SCORE = -1000000;
+    private static final int KILLER_SCORE = 900000;
+    private static final int COUNTER_MOVE_SCORE = 890000;
+    private static final int HISTORY_LIMIT = 500000;
+
+    //half width of aspiration window in centipawns
+    private static final int ASPIRATION_WINDOW = 25;
+    private static final int ASPIRATION_DEPTH = 4;
+
+    //selective search
+    private static final int REVERSE_FUTILITY_DEPTH = 3;
+    private static final int REVERSE_FUTILITY_MARGIN = 120;
+    private static final int NULL_MOVE_DEPTH = 3;
+    private static final int FUTILITY_DEPTH = 2;
+    private static final int FUTILITY_MARGIN = 150;
+    private static final int LATE_MOVE_PRUNING_DEPTH = 3;
+    private static final int REDUCTION_DEPTH = 3;
+    private static final int REDUCTION_MOVES = 3;
+
+    //extensions
+    private static final int SINGULAR_DEPTH = 6;
+    private static final int SINGULAR_MARGIN = 2;
+
+    //reduction by depth and number of move, grows with logarithm of both
+    private static final int[][] REDUCTIONS = new int[MAX_DEPTH][64];
+
+    static {
+        for (int depth = 1; depth < MAX_DEPTH; depth++) {
+            for (int move = 1; move < 64; move++) {
+                REDUCTIONS[depth][move] = (int) (0.75 + Math.log(depth) * Math.log(move) / 2.25);
+            }
+        }
+    }
+
+    private final Evaluation evaluation;
+    private final TranspositionTable table;
+    private SearchOptions options = new SearchOptions();
+    private final SearchStats stats = new SearchStats();
+
+    private Board board;
+    private long nodes;
+    private long startTime;
+    private long deadline;
+    private long nodeLimit;
+    private boolean aborted;
+    private volatile boolean stopped;
+    //time limits are ignored while pondering, until ponder hit
+    private boolean ponder;
+    private volatile long ponderHitTime;
+    private int helperIndex;
+    private SearchListener listener;
+
+    //move ordering heuristics, moves are packed by TranspositionTable.packMove
+    //which is also index of butterfly tables
+    private final int[] killers = new int[MAX_PLY * 2];
+    private final int[] history = new int[2 * 4096];
+    private final int[] counterMoves = new int[4096];
+    //rows are allocated when the ply is first reached
+    private final int[][] moveScores = new int[MAX_PLY][];
+    //gains and sort keys of captures in quiescence search, rows as above
+    private final int[][] captureGains = new int[MAX_PLY][];
+    private final int[][] captureKeys = new int[MAX_PLY][];
+
+    //depth of current iteration, lines are extended only up to twice as deep
+    private int rootDepth;
+    //move skipped by search for singular extension at ply
+    private final int[] excludedMoves = new int[MAX_PLY];
+    //spot of capture made by the previous ply as y * 8 + x, -1 for no capture
+    private final int[] captureSquares = new int[MAX_PLY];
+
+    //triangular table, row of ply holds principal variation from that ply
+    private final int[][] pvTable = new int[MAX_PLY][];
+    private final int[] pvLength = new int[MAX_PLY];
+
+    /**
+     *
+     * @param evaluation evaluation of leaf positions
+     */
+    public Search(Evaluation evaluation) {
+        this(evaluation, new TranspositionTable());
+    }
+
+    /**
+     *
+     * @param evaluation evaluation of leaf positions
+     * @param table table shared by searches of the same game, caller marks
+     * start of each search by newSearch
+     */
+    public Search(Evaluation evaluation, TranspositionTable table) {
+        this.evaluation = evaluation;
+        this.table = table;
+        //principal variation from ply is at most as long as remaining plies
+        for (int ply = 0; ply < MAX_PLY; ply++) {
+            pvTable[ply] = new int[MAX_PLY - ply];
+        }
+    }
+
+    /**
+     * Searches position with iterative deepening until a limit is reached.
+     * Result is the best move of the last finished iteration. When remaining
+     * time on the clock is given, time of search is chosen by TimeManager and
+     * the only legal move is returned without search. Ponder search counts
+     * its time from the start, but it is not stopped by time before ponder
+     * hit.
+     *
+     * @param board position, side to move is searched
+     * @param limits
+     * @return best move and its score
+     */
+    public SearchResult search(Board board, SearchLimits limits) {
+        this.board = board;
+        nodes = 0;
+        aborted = false;
+        startTime = System.currentTimeMillis();
+        deadline = limits.getTime() > 0 ? startTime + limits.getTime() : Long.MAX_VALUE;
+        nodeLimit = limits.getNodes() > 0 ? limits.getNodes() : Long.MAX_VALUE;
+        ponder = limits.isPonder();
+        int maxDepth = limits.getDepth() > 0 ? Math.min(limits.getDepth(), MAX_DEPTH) : MAX_DEPTH;
+        TimeManager timeManager = null;
+        if (limits.getRemainingTime() > 0) {
+            timeManager = new TimeManager(limits.getRemainingTime(), GamePhase.of(board));
+            deadline = Math.min(deadline, startTime + timeManager.getMaximumTime());
+        }
+
+        Color side = board.getSideToMove();
+        List<Move> rootMoves = board.getAllLegalMovesByColor(side);
+        if (rootMoves.isEmpty()) {
+            return new SearchResult(null, board.isInCheck(side) ? -MATE : 0, 0, 0, elapsed());
+        }
+        if (timeManager != null && rootMoves.size() == 1) {
+            return new SearchResult(rootMoves.get(0), 0, 0, 0, elapsed());
+        }
+
+        //helpers of parallel search start with different depth and move
+        //order, so they do not search the same tree as the main thread
+        Collections.rotate(rootMoves, helperIndex);
+        int startDepth = Math.min(1 + helperIndex % 2, maxDepth);
+
+        //best moves are kept at the front of root moves, one for each line
+        int lines = Math.min(options.getMultiPv(), rootMoves.size());
+        Move[] lineMoves = rootMoves.subList(0, lines).toArray(new Move[lines]);
+        int[] lineScores = new int[lines];
+        int[][] linePvs = new int[lines][0];
+        int[] scores = new int[lines];
+        int[][] pvs = new int[lines][];
+        int finishedDepth = 0;
+        for (int depth = startDepth; depth <= maxDepth; depth++) {
+            rootDepth = depth;
+            for (int line = 0; line < lines && !aborted; line++) {
+                scores[line] = searchLine(rootMoves, line, depth, lineScores[line]);
+                pvs[line] = Arrays.copyOf(pvTable[0], pvLength[0]);
+            }
+            if (aborted) {
+                break;
+            }
+            rootMoves.subList(0, lines).toArray(lineMoves);
+            System.arraycopy(scores, 0, lineScores, 0, lines);
+            System.arraycopy(pvs, 0, linePvs, 0, lines);
+            finishedDepth = depth;
+            Move bestMove = lineMoves[0];
+            int bestScore = lineScores[0];
+            table.store(board.getHash(), depth, TranspositionTable.EXACT, toTable(bestScore, 0),
+                    TranspositionTable.packMove(bestMove));
+            if (listener != null) {
+                listener.iterationFinished(createResult(lineMoves, lineScores, linePvs, finishedDepth));
+            }
+            if (lines == 1 && Math.abs(bestScore) >= MATE_BOUND) {
+                break;
+            }
+            if (timeManager != null) {
+                timeManager.iterationFinished(bestMove, bestScore, depth);
+                if (!isPondering() && !timeManager.canStartIteration(elapsed())) {
+                    break;
+                }
+            }
+        }
+        return createResult(lineMoves, lineScores, linePvs, finishedDepth);
+    }
+
+    /**
+     * Searches root moves from index of line with aspiration window around
+     * score of previous iteration, the window is widened on failure
+     *
+     * @return score of the best move, which is moved to index of line
+     */
+    private int searchLine(List<Move> rootMoves, int line, int depth, int previousScore) {
+        int delta = ASPIRATION_WINDOW;
+        int alpha = -INFINITY;
+        int beta = INFINITY;
+        if (depth >= ASPIRATION_DEPTH && Math.abs(previousScore) < MATE_BOUND) {
+            alpha = previousScore - delta;
+            beta = previousScore + delta;
+        }
+        while (true) {
+            int score = searchRoot(rootMoves, line, depth, alpha, beta);
+            if (aborted) {
+                return score;
+            }
+            if (score <= alpha) {
+                alpha = Math.max(alpha - delta, -INFINITY);
+            } else if (score >= beta) {
+                beta = Math.min(beta + delta, INFINITY);
+            } else {
+                return score;
+            }
+            delta *= 2;
+        }
+    }
+
+    /**
+     *
+     * @return result of the best line with all lines of the last finished
+     * iteration
+     */
+    private SearchResult createResult(Move[] lineMoves, int[] lineScores, int[][] linePvs, int depth) {
+        List<SearchResult> lines = new ArrayList<>(lineScores.length);
+        for (int i = 0; i < lineScores.length; i++) {
+            SearchResult line = new SearchResult(lineMoves[i], lineScores[i], depth, nodes, elapsed());
+            List<Move> moves = new ArrayList<>();
+            String san = buildPrincipalVariation(linePvs[i], moves);
+            line.setPrincipalVariation(moves, san);
+            lines.add(line);
+        }
+        SearchResult result = lines.get(0);
+        result.setStats(stats);
+        result.setLines(lines);
+        return result;
+    }
+
+    /**
+     * Searches the first root move with full window and the others with
+     * zero window, which is repeated with full window when the move is
+     * better. Moves before index from are best moves of other lines and are
+     * skipped. New best move is moved to index from.
+     */
+    private int searchRoot(List<Move> rootMoves, int from, int depth, int alpha, int beta) {
+        pvLength[0] = 0;
+        int bestScore = -INFINITY;
+        for (int i = from; i < rootMoves.size(); i++) {
+            Move move = rootMoves.get(i);
+            captureSquares[1] = captureSquare(move);
+            board.makeMove(move);
+            nodes++;
+            int score;
+            if (i == from) {
+                score = -negamax(depth - 1, -beta, -alpha, 1);
+            } else {
+                score = -negamax(depth - 1, -alpha - 1, -alpha, 1);
+                if (score > alpha && score < beta && !aborted) {
+                    score = -negamax(depth - 1, -beta, -alpha, 1);
+                }
+            }
+            board.undoMove();
+            if (aborted) {
+                return bestScore;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePrincipalVariation(0, TranspositionTable.packMove(move));
+                    rootMoves.remove(i);
+                    rootMoves.add(from, move);
+                    if (score >= beta) {
+                        return score;
+                    }
+                }
+            }
+        }
+        return bestScore;
+    }
+
+    /**
+     * Saves move at ply followed by principal variation of the child node
+     */
+    private void updatePrincipalVariation(int ply, int move) {
+        pvTable[ply][0] = move;
+        System.arraycopy(pvTable[ply + 1], 0, pvTable[ply], 1, pvLength[ply + 1]);
+        pvLength[ply] = pvLength[ply + 1] + 1;
+    }
+
+    /**
+     * Replays principal variation of root on board
+     *
+     * @param packed packed moves of principal variation
+     * @param moves list for moves of principal variation
+     * @return principal variation in standard algebraic notation
+     */
+    private String buildPrincipalVariation(int[] packed, List<Move> moves) {
+        StringBuilder san = new StringBuilder();
+        for (int i = 0; i < packed.length; i++) {
+            Move move = null;
+            for (Move legal : board.getAllLegalMovesByColor(board.getSideToMove())) {
+                if (TranspositionTable.packMove(legal) == packed[i]) {
+                    move = legal;
+                    break;
+                }
+            }
+            if (move == null) {
+                break;
+            }
+            if (san.length() > 0) {
+                san.append(' ');
+            }
+            san.append(San.toSan(board, move));
+            moves.add(move);
+            board.makeMove(move);
+        }
+        for (int i = 0; i < moves.size(); i++) {
+            board.undoMove();
+        }
+        return san.toString();
+    }
+
+    private int negamax(int depth, int alpha, int beta, int ply) {
+        if (stopped || (nodes & (CHECK_INTERVAL - 1)) == 0 || nodes >= nodeLimit) {
+            checkLimits();
+        }
+        if (aborted) {
+            return 0;
+        }
+        if (depth <= 0 || ply >= MAX_PLY - 1) {
+            return quiescence(alpha, beta, ply);
+        }
+        pvLength[ply] = 0;
+        //only nodes of principal variation are searched with open window
+        boolean pvNode = beta - alpha > 1;
+
+        //search excluding a move stores nothing, its result is not the score
+        //of position
+        int excluded = excludedMoves[ply];
+        long hash = board.getHash();
+        long entry = excluded != 0 ? 0 : table.probe(hash);
+        int hashMove = TranspositionTable.getMove(entry);
+        if (!pvNode && entry != 0 && TranspositionTable.getDepth(entry) >= depth) {
+            int score = fromTable(TranspositionTable.getScore(entry), ply);
+            int bound = TranspositionTable.getBound(entry);
+            if (bound == TranspositionTable.EXACT
+                    || bound == TranspositionTable.LOWER && score >= beta
+                    || bound == TranspositionTable.UPPER && score <= alpha) {
+                return score;
+            }
+        }
+
+        Color side = board.getSideToMove();
+        boolean inCheck = board.isInCheck(side);
+        int staticEval = inCheck ? -INFINITY : evaluation.evaluate(board);
+
+        //position is so good, that even losing a margin per ply fails high
+        if (options.isReverseFutilityPruning() && !pvNode && !inCheck && excluded == 0 && depth <= REVERSE_FUTILITY_DEPTH
+                && Math.abs(beta) < MATE_BOUND && staticEval - REVERSE_FUTILITY_MARGIN * depth >= beta) {
+            stats.reverseFutilityCutoffs++;
+            return staticEval - REVERSE_FUTILITY_MARGIN * depth;
+        }
+
+        //if passing the turn still fails high, a real move will too, this is
+        //not true in zugzwang, which is common when only pawns are left
+        if (options.isNullMove() && !pvNode && !inCheck && excluded == 0 && depth >= NULL_MOVE_DEPTH && board.getLastMove() != null
+                && staticEval >= beta && Math.abs(beta) < MATE_BOUND && hasPieces(side)) {
+            int reduction = depth > 6 ? 3 : 2;
+            board.makeNullMove();
+            nodes++;
+            int score = -negamax(depth - 1 - reduction, -beta, -beta + 1, ply + 1);
+            board.undoMove();
+            if (aborted) {
+                return 0;
+            }
+            if (score >= beta) {
+                stats.nullMoveCutoffs++;
+                return score >= MATE_BOUND ? beta : score;
+            }
+        }
+
+        //hash move is singular, when all other moves searched with reduced
+        //depth fail low against a bound below its score, then it is extended
+        int singularMove = 0;
+        boolean extend = options.isExtensions() && ply < 2 * rootDepth;
+        if (extend && depth >= SINGULAR_DEPTH && hashMove != 0
+                && TranspositionTable.getBound(entry) != TranspositionTable.UPPER
+                && TranspositionTable.getDepth(entry) >= depth - 3) {
+            int hashScore = fromTable(TranspositionTable.getScore(entry), ply);
+            if (Math.abs(hashScore) < MATE_BOUND) {
+                int singularBeta = hashScore - SINGULAR_MARGIN * depth;
+                excludedMoves[ply] = hashMove;
+                int score = negamax((depth - 1) / 2, singularBeta - 1, singularBeta, ply);
+                excludedMoves[ply] = 0;
+                if (aborted) {
+                    return 0;
+                }
+                if (score < singularBeta) {
+                    singularMove = hashMove;
+                }
+            }
+        }
+
+        //moves are checked for legality after they are made, so moves after
+        //cutoff are never checked
+        List<Move> moves = board.getAllAvailableMovesByColor(side);
+        int[] scores = moveScores[ply];
+        if (scores == null) {
+            scores = moveScores[ply] = new int[MAX_MOVES];
+        }
+        int counterMove = board.getLastMove() == null ? 0 : counterMoves[TranspositionTable.packMove(board.getLastMove())];
+        scoreMoves(moves, scores, hashMove, counterMove, ply, side);
+        boolean futile = options.isFutilityPruning() && !inCheck && depth <= FUTILITY_DEPTH
+                && Math.abs(alpha) < MATE_BOUND && staticEval + FUTILITY_MARGIN * depth <= alpha;
+        int lateMoveCount = 3 + depth * depth;
+        int originalAlpha = alpha;
+        int bestMove = 0;
+        int legalMoves = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            Move move = pickMove(moves, scores, i);
+            int packed = TranspositionTable.packMove(move);
+            if (packed == excluded) {
+                continue;
+            }
+            int captureSquare = captureSquare(move);
+            boolean quiet = captureSquare < 0 && !move.isPromotion();
+            board.makeMove(move);
+            if (board.isInCheck(side)) {
+                board.undoMove();
+                continue;
+            }
+            legalMoves++;
+            boolean givesCheck = board.isInCheck(side.opposite());
+
+            //forcing moves are searched one ply deeper
+            int extension = 0;
+            if (extend) {
+                if (packed == singularMove) {
+                    extension = 1;
+                    stats.singularExtensions++;
+                } else if (givesCheck) {
+                    extension = 1;
+                    stats.checkExtensions++;
+                } else if (pvNode && captureSquare >= 0 && captureSquare == captureSquares[ply]) {
+                    extension = 1;
+                    stats.recaptureExtensions++;
+                }
+            }
+            int newDepth = depth - 1 + extension;
+            captureSquares[ply + 1] = captureSquare;
+
+            //quiet moves, which do not give check, are pruned or reduced
+            boolean late = quiet && !inCheck && legalMoves > 1 && scores[i] < COUNTER_MOVE_SCORE;
+            boolean prune = late && (futile || options.isLateMovePruning()
+                    && depth <= LATE_MOVE_PRUNING_DEPTH && legalMoves > lateMoveCount);
+            //captures losing material are reduced like late quiet moves
+            boolean losing = !quiet && !inCheck && scores[i] < 0;
+            boolean reduce = (late || losing) && options.isLateMoveReductions() && depth >= REDUCTION_DEPTH
+                    && legalMoves > REDUCTION_MOVES;
+            if (givesCheck) {
+                prune = false;
+                reduce = false;
+            }
+            if (prune) {
+                board.undoMove();
+                if (futile) {
+                    stats.futilityPruned++;
+                } else {
+                    stats.lateMovesPruned++;
+                }
+                continue;
+            }
+
+            nodes++;
+            int score;
+            if (legalMoves == 1) {
+                score = -negamax(newDepth, -beta, -alpha, ply + 1);
+            } else {
+                //other moves are expected to be worse, which is proved by
+                //cheaper zero window search
+                score = alpha + 1;
+                if (reduce) {
+                    stats.reductions++;
+                    int reduction = REDUCTIONS[Math.min(depth, MAX_DEPTH - 1)][Math.min(legalMoves, 63)];
+                    score = -negamax(Math.max(newDepth - reduction, 1), -alpha - 1, -alpha, ply + 1);
+                    if (score > alpha) {
+                        stats.researches++;
+                    }
+                }
+                if (score > alpha && !aborted) {
+                    score = -negamax(newDepth, -alpha - 1, -alpha, ply + 1);
+                }
+                if (pvNode && score > alpha && score < beta && !aborted) {
+                    score = -negamax(newDepth, -beta, -alpha, ply + 1);
+                }
+            }
+            board.undoMove();
+            if (aborted) {
+                return 0;
+            }
+            if (score >= beta) {
+                if (quiet) {
+                    updateQuietCutoff(packed, depth, ply, side);
+                }
+                if (excluded == 0) {
+                    table.store(hash, depth, TranspositionTable.LOWER, toTable(score, ply), packed);
+                }
+                return score;
+            }
+            if (score > alpha) {
+                alpha = score;
+                bestMove = packed;
+                updatePrincipalVariation(ply, bestMove);
+            }
+        }
+        if (excluded != 0) {
+            return alpha;
+        }
+        if (legalMoves == 0) {
+            return inCheck ? -MATE + ply : 0;
+        }
+        table.store(hash, depth, alpha > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER,
+                toTable(alpha, ply), bestMove);
+        return alpha;
+    }
+
+    /**
+     *
+     * @return spot of piece captured by move as y * 8 + x, -1 if move is not
+     * a capture
+     */
+    private int captureSquare(Move move) {
+        if (board.hasPiece(move.getEnd()) || move.isEnPassant()) {
+            return move.getEndY() * Board.BOARD_SIZE + move.getEndX();
+        }
+        return -1;
+    }
+
+    /**
+     *
+     * @return true if side has other pieces than king and pawns
+     */
+    private boolean hasPieces(Color side) {
+        for (int y = 0; y < Board.BOARD_SIZE; y++) {
+            for (int x = 0; x < Board.BOARD_SIZE; x++) {
+                Piece piece = board.getPieceAt(x, y);
+                if (piece != null && piece.getColor() == side
+                        && piece.getType() != PieceType.PAWN && piece.getType() != PieceType.KING) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Searches only captures and promotions until the position is quiet, so
+     * that positions in the middle of exchange are not evaluated
+     */
+    private int quiescence(int alpha, int beta, int ply) {
+        if (stopped || (nodes & (CHECK_INTERVAL - 1)) == 0 || nodes >= nodeLimit) {
+            checkLimits();
+        }
+        if (aborted) {
+            return 0;
+        }
+        pvLength[ply] = 0;
+        //side to move does not have to capture, so evaluation is lower bound
+        int standPat = evaluation.evaluate(board);
+        if (standPat >= beta || ply >= MAX_PLY - 1) {
+            return standPat;
+        }
+        if (standPat > alpha) {
+            alpha = standPat;
+        }
+
+        Color side = board.getSideToMove();
+        List<Move> captures = board.getAllCapturesByColor(side);
+        int[] gains = sortByMvvLva(captures, ply);
+        for (int i = 0; i < captures.size(); i++) {
+            //delta pruning, even winning the piece with some margin is not enough
+            if (standPat + gains[i] + DELTA_MARGIN <= alpha) {
+                continue;
+            }
+            Move move = captures.get(i);
+            if (options.isStaticExchangePruning() && isLosingCapture(move)) {
+                stats.losingCapturesPruned++;
+                continue;
+            }
+            board.makeMove(move);
+            if (board.isInCheck(side)) {
+                board.undoMove();
+                continue;
+            }
+            nodes++;
+            int score = -quiescence(-beta, -alpha, ply + 1);
+            board.undoMove();
+            if (aborted) {
+                return 0;
+            }
+            if (score >= beta) {
+                return score;
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+        }
+        return alpha;
+    }
+
+    /**
+     * Sorts captures by most valuable victim, then by least valuable
+     * attacker
+     *
+     * @return material gained by each capture in the new order, array of
+     * ply is reused
+     */
+    private int[] sortByMvvLva(List<Move> captures, int ply) {
+        int size = captures.size();
+        int[] gains = captureGains[ply];
+        int[] keys = captureKeys[ply];
+        if (gains == null) {
+            gains = captureGains[ply] = new int[MAX_MOVES];
+            keys = captureKeys[ply] = new int[MAX_MOVES];
+        }
+        for (int i = 0; i < size; i++) {
+            Move move = captures.get(i);
+            int gain = captureGain(move);
+            int key = mvvLva(move);
+            //insertion sort, lists of captures are short
+            int j = i;
+            while (j > 0 && keys[j - 1] < key) {
+                keys[j] = keys[j - 1];
+                gains[j] = gains[j - 1];
+                captures.set(j, captures.get(j - 1));
+                j--;
+            }
+            keys[j] = key;
+            gains[j] = gain;
+            captures.set(j, move);
+        }
+        return gains;
+    }
+
+    private void scoreMoves(List<Move> moves, int[] scores, int hashMove, int counterMove, int ply, Color side) {
+        int killer1 = killers[ply * 2];
+        int killer2 = killers[ply * 2 + 1];
+        int historyOffset = side.ordinal() * 4096;
+        int size = Math.min(moves.size(), MAX_MOVES);
+        for (int i = 0; i < size; i++) {
+            Move move = moves.get(i);
+            int packed = TranspositionTable.packMove(move);
+            if (packed == hashMove) {
+                scores[i] = HASH_MOVE_SCORE;
+            } else if (board.hasPiece(move.getEnd()) || move.isEnPassant() || move.isPromotion()) {
+                scores[i] = (isLosingCapture(move) ? LOSING_CAPTURE_SCORE : CAPTURE_SCORE) + mvvLva(move);
+            } else if (packed == killer1) {
+                scores[i] = KILLER_SCORE;
+            } else if (packed == killer2) {
+                scores[i] = KILLER_SCORE - 1;
+            } else if (packed == counterMove) {
+                scores[i] = COUNTER_MOVE_SCORE;
+            } else {
+                scores[i] = history[historyOffset + packed];
+            }
+        }
+    }
+
+    /**
+     * Moves the best of remaining moves to index, moves are selected one by
+     * one, because after cutoff the rest does not need to be sorted
+     */
+    private static Move pickMove(List<Move> moves, int[] scores, int index) {
+        int best = index;
+        for (int i = index + 1; i < moves.size(); i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        Move move = moves.get(best);
+        if (best != index) {
+            moves.set(best, moves.get(index));
+            moves.set(index, move);
+            int score = scores[best];
+            scores[best] = scores[index];
+            scores[index] = score;
+        }
+        return move;
+    }
+
+    private void updateQuietCutoff(int move, int depth, int ply, Color side) {
+        if (killers[ply * 2] != move) {
+            killers[ply * 2 + 1] = killers[ply * 2];
+            killers[ply * 2] = move;
+        }
+        Move lastMove = board.getLastMove();
+        if (lastMove != null) {
+            counterMoves[TranspositionTable.packMove(lastMove)] = move;
+        }
+        int index = side.ordinal() * 4096 + move;
+        history[index] += depth * depth;
+        if (history[index] > HISTORY_LIMIT) {
+            //older results become less important
+            for (int i = 0; i < history.length; i++) {
+                history[i] /= 2;
+            }
+        }
+    }
+
+    private int mvvLva(Move move) {
+        PieceType attacker = board.getPieceAt(move.getStartX(), move.getStartY()).getType();
+        return captureGain(move) * 8 - attacker.ordinal();
+    }
+
+    /**
+     * Static exchange evaluation is needed only when the captured piece is
+     * cheaper than the capturing one
+     */
+    private boolean isLosingCapture(Move move) {
+        if (move.isPromotion()) {
+            return false;
+        }
+        Piece attacker = board.getPieceAt(move.getStartX(), move.getStartY());
+        return captureGain(move) < attacker.getType().getValue() && board.see(move) < 0;
+    }
+
+    private int captureGain(Move move) {
+        Piece victim = board.getPieceAt(move.getEndX(), move.getEndY());
+        int gain = move.isEnPassant() ? PieceType.PAWN.getValue() : victim == null ? 0 : victim.getType().getValue();
+        if (move.isPromotion()) {
+            gain += PieceType.QUEEN.getValue() - PieceType.PAWN.getValue();
+        }
+        return gain;
+    }
+
+    //mate scores are stored relative to the position, not to the root
+    private static int toTable(int score, int ply) {
+        if (score >= MATE_BOUND) {
+            return score + ply;
+        }
+        if (score <= -MATE_BOUND) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score >= MATE_BOUND) {
+            return score - ply;
+        }
+        if (score <= -MATE_BOUND) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    private void checkLimits() {
+        if (stopped || nodes >= nodeLimit || !isPondering() && System.currentTimeMillis() >= getDeadline()) {
+            aborted = true;
+        }
+    }
+
+    private boolean isPondering() {
+        return ponder && ponderHitTime == 0;
+    }
+
+    /**
+     * Search after ponder hit has at least minimal time, even if the time of
+     * pondering was longer than the time of search
+     */
+    private long getDeadline() {
+        if (ponder && deadline != Long.MAX_VALUE) {
+            return Math.max(deadline, ponderHitTime + TimeManager.MIN_TIME);
+        }
+        return deadline;
+    }
+
+    private long elapsed() {
+        return System.currentTimeMillis() - startTime;
+    }
+
+    /**
+     * Stops search from another thread, search returns result of the last
+     * finished iteration. Stopped search cannot be started again.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Opponent played the expected move, so ponder search continues as a
+     * normal search and its time limits apply from now on. Can be called
+     * from another thread, also before search is started.
+     */
+    public void ponderHit() {
+        if (ponderHitTime == 0) {
+            ponderHitTime = System.currentTimeMillis();
+        }
+    }
+
+    public SearchOptions getOptions() {
+        return options;
+    }
+
+    /**
+     *
+     * @param listener notified on search thread after each finished
+     * iteration, null for none
+     */
+    public void setListener(SearchListener listener) {
+        this.listener = listener;
+    }
+
+    public void setOptions(SearchOptions options) {
+        this.options = options;
+    }
+
+    /**
+     *
+     * @return counters of selective search so far
+     */
+    public SearchStats getStats() {
+        return stats;
+    }
+
+    /**
+     *
+     * @param helperIndex index of helper thread of parallel search, 0 for
+     * main thread
+     */
+    void setHelperIndex(int helperIndex) {
+        this.helperIndex = helperIndex;
+    }
+
+    /**
+     *
+     * @return number of nodes searched so far
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+}
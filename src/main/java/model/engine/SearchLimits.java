@@ -0,0 +1,119 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package model.engine;
+
+/**
+ * Budget of one search. Zero means, that the value is not limited. When
+ * remaining time on the clock is set, time of search is chosen by
+ * TimeManager. Ponder search ignores time until ponder hit.
+ *
+ * @author ottovodvarka
+ */
+public class SearchLimits {
+
+    private int depth;
+    private long nodes;
+    private long time;
+    private long remainingTime;
+    private boolean ponder;
+
+    public SearchLimits() {
+    }
+
+    /**
+     *
+     * @param limits limits to copy
+     */
+    public SearchLimits(SearchLimits limits) {
+        this(limits.depth, limits.nodes, limits.time);
+        this.remainingTime = limits.remainingTime;
+        this.ponder = limits.ponder;
+    }
+
+    /**
+     *
+     * @param depth maximal depth in plies
+     * @param nodes maximal number of nodes
+     * @param time maximal time in milliseconds
+     */
+    public SearchLimits(int depth, long nodes, long time) {
+        this.depth = depth;
+        this.nodes = nodes;
+        this.time = time;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public void setDepth(int depth) {
+        this.depth = depth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public void setNodes(long nodes) {
+        this.nodes = nodes;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public void setTime(long time) {
+        this.time = time;
+    }
+
+    public long getRemainingTime() {
+        return remainingTime;
+    }
+
+    /**
+     *
+     * @param remainingTime time left on the clock of side to move in
+     * milliseconds
+     */
+    public void setRemainingTime(long remainingTime) {
+        this.remainingTime = remainingTime;
+    }
+
+    public boolean isPonder() {
+        return ponder;
+    }
+
+    /**
+     *
+     * @param ponder true if position is searched on opponent's time, time
+     * limits apply after ponder hit
+     */
+    public void setPonder(boolean ponder) {
+        this.ponder = ponder;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        if (depth > 0) {
+            sb.append("depth ").append(depth).append(' ');
+        }
+        if (nodes > 0) {
+            sb.append("nodes ").append(nodes).append(' ');
+        }
+        if (time > 0) {
+            sb.append("time ").append(time).append(" ms ");
+        }
+        if (remainingTime > 0) {
+            sb.append("clock ").append(remainingTime).append(" ms ");
+        }
+        if (ponder) {
+            sb.append("ponder ");
+        }
+        return sb.length() == 0 ? "unlimited" : sb.toString().trim();
+    }
+
+}
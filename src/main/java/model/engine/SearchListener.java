@@ -0,0 +1,23 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package model.engine;
+
+/**
+ * Receives progress of search, e.g. to show analysis while the search goes
+ * on
+ *
+ * @author ottovodvarka
+ */
+public interface SearchListener {
+
+    /**
+     * Called on search thread, so it should return quickly
+     *
+     * @param result result of the finished iteration with all its lines
+     */
+    void iterationFinished(SearchResult result);
+
+}
@@ -0,0 +1,124 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package model.engine;
+
+/**
+ * Switches of selective search. Everything is enabled by default, disabling
+ * makes search slower but easier to compare.
+ *
+ * @author ottovodvarka
+ */
+public class SearchOptions {
+
+    private boolean nullMove = true;
+    private boolean lateMoveReductions = true;
+    private boolean futilityPruning = true;
+    private boolean reverseFutilityPruning = true;
+    private boolean lateMovePruning = true;
+    private boolean extensions = true;
+    private boolean staticExchangePruning = true;
+    private int multiPv = 1;
+
+    public SearchOptions() {
+    }
+
+    /**
+     *
+     * @param enabled value of all switches
+     */
+    public SearchOptions(boolean enabled) {
+        nullMove = enabled;
+        lateMoveReductions = enabled;
+        futilityPruning = enabled;
+        reverseFutilityPruning = enabled;
+        lateMovePruning = enabled;
+        extensions = enabled;
+        staticExchangePruning = enabled;
+    }
+
+    public boolean isNullMove() {
+        return nullMove;
+    }
+
+    public void setNullMove(boolean nullMove) {
+        this.nullMove = nullMove;
+    }
+
+    public boolean isLateMoveReductions() {
+        return lateMoveReductions;
+    }
+
+    public void setLateMoveReductions(boolean lateMoveReductions) {
+        this.lateMoveReductions = lateMoveReductions;
+    }
+
+    public boolean isFutilityPruning() {
+        return futilityPruning;
+    }
+
+    public void setFutilityPruning(boolean futilityPruning) {
+        this.futilityPruning = futilityPruning;
+    }
+
+    public boolean isReverseFutilityPruning() {
+        return reverseFutilityPruning;
+    }
+
+    public void setReverseFutilityPruning(boolean reverseFutilityPruning) {
+        this.reverseFutilityPruning = reverseFutilityPruning;
+    }
+
+    public boolean isLateMovePruning() {
+        return lateMovePruning;
+    }
+
+    public void setLateMovePruning(boolean lateMovePruning) {
+        this.lateMovePruning = lateMovePruning;
+    }
+
+    /**
+     *
+     * @return true if checks, singular moves and recaptures are searched
+     * deeper
+     */
+    public boolean isExtensions() {
+        return extensions;
+    }
+
+    public void setExtensions(boolean extensions) {
+        this.extensions = extensions;
+    }
+
+    /**
+     *
+     * @return true if quiescence search skips captures, which lose material
+     * by static exchange evaluation
+     */
+    public boolean isStaticExchangePruning() {
+        return staticExchangePruning;
+    }
+
+    public void setStaticExchangePruning(boolean staticExchangePruning) {
+        this.staticExchangePruning = staticExchangePruning;
+    }
+
+    public int getMultiPv() {
+        return multiPv;
+    }
+
+    /**
+     *
+     * @param multiPv number of best lines searched with exact score, more
+     * lines make search slower
+     */
+    public void setMultiPv(int multiPv) {
+        if (multiPv < 1) {
+            throw new IllegalArgumentException("At least one line is needed: " + multiPv);
+        }
+        this.multiPv = multiPv;
+    }
+
+}
@@ -0,0 +1,121 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package model.engine;
+
+import java.util.Collections;
+import java.util.List;
+import model.chess.Move;
+
+/**
+ *
+ * @author ottovodvarka
+ */
+public class SearchResult {
+
+    private final Move move;
+    private final int score;
+    private final int depth;
+    private final long nodes;
+    private final long time;
+    private SearchStats stats = new SearchStats();
+    private List<Move> principalVariation = Collections.emptyList();
+    private String principalVariationSan = "";
+    private List<SearchResult> lines = Collections.emptyList();
+
+    /**
+     *
+     * @param move best move, null when there is no legal move
+     * @param score score in centipawns from the view of side to move
+     * @param depth finished depth in plies
+     * @param nodes number of searched nodes
+     * @param time time of search in milliseconds
+     */
+    public SearchResult(Move move, int score, int depth, long nodes, long time) {
+        this.move = move;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.time = time;
+    }
+
+    public Move getMove() {
+        return move;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public SearchStats getStats() {
+        return stats;
+    }
+
+    public void setStats(SearchStats stats) {
+        this.stats = stats;
+    }
+
+    /**
+     *
+     * @return expected moves of both sides starting with the best move, moves
+     * belong to board used by search
+     */
+    public List<Move> getPrincipalVariation() {
+        return principalVariation;
+    }
+
+    /**
+     *
+     * @return principal variation in standard algebraic notation, e.g. "e4 e5
+     * Nf3"
+     */
+    public String getPrincipalVariationSan() {
+        return principalVariationSan;
+    }
+
+    /**
+     *
+     * @param moves expected moves starting with the best move
+     * @param san the same moves in standard algebraic notation
+     */
+    public void setPrincipalVariation(List<Move> moves, String san) {
+        this.principalVariation = moves;
+        this.principalVariationSan = san;
+    }
+
+    /**
+     *
+     * @return best lines ordered from the best one when more lines were
+     * searched, each with its move, score and principal variation
+     */
+    public List<SearchResult> getLines() {
+        return lines;
+    }
+
+    public void setLines(List<SearchResult> lines) {
+        this.lines = lines;
+    }
+
+    /**
+     *
+     * @return searched nodes per second
+     */
+    public long getNodesPerSecond() {
+        return nodes * 1000 / Math.max(1, time);
+    }
+
+}
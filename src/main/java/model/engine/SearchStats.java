@@ -0,0 +1,109 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package model.engine;
+
+/**
+ * Counters of selective search, how many times each technique was used
+ *
+ * @author ottovodvarka
+ */
+public class SearchStats {
+
+    long nullMoveCutoffs;
+    long reductions;
+    long researches;
+    long futilityPruned;
+    long reverseFutilityCutoffs;
+    long lateMovesPruned;
+    long checkExtensions;
+    long singularExtensions;
+    long recaptureExtensions;
+    long losingCapturesPruned;
+
+    /**
+     * Adds counters of another search, e.g. of helper thread
+     *
+     * @param stats
+     */
+    public void add(SearchStats stats) {
+        nullMoveCutoffs += stats.nullMoveCutoffs;
+        reductions += stats.reductions;
+        researches += stats.researches;
+        futilityPruned += stats.futilityPruned;
+        reverseFutilityCutoffs += stats.reverseFutilityCutoffs;
+        lateMovesPruned += stats.lateMovesPruned;
+        checkExtensions += stats.checkExtensions;
+        singularExtensions += stats.singularExtensions;
+        recaptureExtensions += stats.recaptureExtensions;
+        losingCapturesPruned += stats.losingCapturesPruned;
+    }
+
+    public long getNullMoveCutoffs() {
+        return nullMoveCutoffs;
+    }
+
+    /**
+     *
+     * @return number of moves searched with late move reduction
+     */
+    public long getReductions() {
+        return reductions;
+    }
+
+    /**
+     *
+     * @return number of reduced moves searched again to full depth
+     */
+    public long getResearches() {
+        return researches;
+    }
+
+    public long getFutilityPruned() {
+        return futilityPruned;
+    }
+
+    public long getReverseFutilityCutoffs() {
+        return reverseFutilityCutoffs;
+    }
+
+    public long getLateMovesPruned() {
+        return lateMovesPruned;
+    }
+
+    public long getCheckExtensions() {
+        return checkExtensions;
+    }
+
+    public long getSingularExtensions() {
+        return singularExtensions;
+    }
+
+    public long getRecaptureExtensions() {
+        return recaptureExtensions;
+    }
+
+    /**
+     *
+     * @return number of captures skipped by quiescence search, because they
+     * lose material
+     */
+    public long getLosingCapturesPruned() {
+        return losingCapturesPruned;
+    }
+
+    @Override
+    public String toString() {
+        return "null move cutoffs " + nullMoveCutoffs
+                + ", reductions " + reductions + " (" + researches + " re-searched)"
+                + ", futility pruned " + futilityPruned
+                + ", reverse futility cutoffs " + reverseFutilityCutoffs
+                + ", late moves pruned " + lateMovesPruned
+                + ", losing captures pruned " + losingCapturesPruned
+                + ", extensions " + checkExtensions + " check, " + singularExtensions + " singular, "
+                + recaptureExtensions + " recapture";
+    }
+
+}
@@ -0,0 +1,90 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package model.engine;
+
+/**
+ * Playing strength of computer player. Weaker levels search only a few
+ * nodes to a small depth and add noise to evaluation, so that they make
+ * human-like mistakes and cost almost no processor time.
+ *
+ * @author ottovodvarka
+ */
+public enum Strength {
+
+    BEGINNER("Beginner", 1, 400, 150),
+    EASY("Easy", 2, 3000, 80),
+    MEDIUM("Medium", 4, 40000, 30),
+    HARD("Hard", 8, 600000, 10),
+    MAXIMUM("Maximum", 0, 0, 0);
+
+    /**
+     * Size of transposition table of limited levels in megabytes, their
+     * searches are too small for a bigger one
+     */
+    public static final long LIMITED_TABLE_SIZE_MB = 1;
+
+    private final String name;
+    private final int depth;
+    private final long nodes;
+    private final int noise;
+
+    private Strength(String name, int depth, long nodes, int noise) {
+        this.name = name;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.noise = noise;
+    }
+
+    /**
+     *
+     * @return new limits of depth and nodes of this level, time is given by
+     * the clock
+     */
+    public SearchLimits getLimits() {
+        return new SearchLimits(depth, nodes, 0);
+    }
+
+    /**
+     *
+     * @return true if the search of this level has fixed budget, such search
+     * runs in one thread and does not ponder
+     */
+    public boolean isLimited() {
+        return nodes > 0;
+    }
+
+    /**
+     *
+     * @param seed seed of noise, another seed gives another mistakes
+     * @return evaluation of this level
+     */
+    public Evaluation createEvaluation(long seed) {
+        Evaluation evaluation = new DefaultEvaluation();
+        return noise > 0 ? new NoisyEvaluation(evaluation, noise, seed) : evaluation;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     *
+     * @return maximal noise of evaluation in centipawns
+     */
+    public int getNoise() {
+        return noise;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+}
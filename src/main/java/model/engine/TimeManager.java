@@ -0,0 +1,121 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package model.engine;
+
+import model.chess.GamePhase;
+import model.chess.Move;
+
+/**
+ * Splits remaining time on the clock to moves. Search should not start a new
+ * iteration after optimum time, which is longer when the best move or score
+ * is unstable and shorter when it stays the same. Maximum time is a hard stop
+ * and always leaves a safety margin on the clock.
+ *
+ * @author ottovodvarka
+ */
+public class TimeManager {
+
+    /**
+     * Time which is never used, clock shows whole seconds and the move is
+     * played on FX thread after search
+     */
+    public static final long SAFETY_MARGIN = 1500;
+
+    /**
+     * Shortest time given to search, even when clock is almost out
+     */
+    public static final long MIN_TIME = 50;
+
+    //one move never takes more than this part of remaining time
+    private static final int MAX_PART = 4;
+    //maximum time is at most this multiple of optimum time
+    private static final int MAX_RATIO = 5;
+    //score drop in centipawns considered unstable
+    private static final int SCORE_DROP = 30;
+
+    private final long optimumTime;
+    private final long maximumTime;
+
+    private Move lastBestMove;
+    private int stableIterations;
+    private int lastScore;
+    private double factor = 1;
+
+    /**
+     *
+     * @param remainingTime time left on the clock in milliseconds
+     * @param phase phase of game, fewer moves are expected in later phases
+     */
+    public TimeManager(long remainingTime, GamePhase phase) {
+        long usable = Math.max(0, remainingTime - SAFETY_MARGIN);
+        long optimum = Math.max(MIN_TIME, usable / getMovesToGo(phase));
+        maximumTime = Math.max(MIN_TIME, Math.min(usable / MAX_PART, optimum * MAX_RATIO));
+        optimumTime = Math.min(optimum, maximumTime);
+    }
+
+    private static int getMovesToGo(GamePhase phase) {
+        switch (phase) {
+            case OPENING:
+                return 40;
+            case MIDDLEGAME:
+                return 30;
+            default:
+                return 20;
+        }
+    }
+
+    /**
+     * Updates stability after an iteration is finished
+     *
+     * @param bestMove best move of the iteration
+     * @param score score of the iteration
+     * @param depth depth of the iteration
+     */
+    public void iterationFinished(Move bestMove, int score, int depth) {
+        if (depth > 1 && bestMove.equals(lastBestMove)) {
+            stableIterations++;
+        } else {
+            stableIterations = 0;
+        }
+        factor = 1;
+        if (depth > 1 && stableIterations == 0) {
+            factor *= 1.5;
+        } else if (stableIterations >= 3) {
+            factor *= 0.6;
+        }
+        if (depth > 1 && score < lastScore - SCORE_DROP) {
+            factor *= 1.5;
+        }
+        lastBestMove = bestMove;
+        lastScore = score;
+    }
+
+    /**
+     *
+     * @param elapsed time of search so far in milliseconds
+     * @return true if next iteration should be started
+     */
+    public boolean canStartIteration(long elapsed) {
+        return elapsed < Math.min(optimumTime * factor, maximumTime);
+    }
+
+    /**
+     *
+     * @return time after which no new iteration should be started
+     */
+    public long getOptimumTime() {
+        return optimumTime;
+    }
+
+    /**
+     *
+     * @return time after which search is aborted
+     */
+    public long getMaximumTime() {
+        return maximumTime;
+    }
+
+}
@@ -0,0 +1,264 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package model.engine;
+
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import model.chess.Move;
+
+/**
+ * Table of searched positions indexed by Zobrist hash. Entries are kept in
+ * direct byte buffers outside of Java heap, so even tables of many gigabytes
+ * are invisible to garbage collector.
+ * <p>
+ * Table is divided into buckets of 64 bytes (one cache line), each holding 4
+ * entries of key and packed data, so a probe reads a single cache line. First
+ * three entries of a bucket are replaced only by deeper searches or when they
+ * are left from older search, the last one is always replaced.
+ * <p>
+ * Table can be shared by search threads without locking. Key is stored
+ * XORed with data, so an entry torn by two threads writing at once does not
+ * match any position and is ignored. Only resize and clear must not run
+ * during search.
+ *
+ * @author ottovodvarka
+ */
+public class TranspositionTable {
+
+    /**
+     * Score is exact
+     */
+    public static final int EXACT = 1;
+
+    /**
+     * Score is at least the stored value (beta cutoff)
+     */
+    public static final int LOWER = 2;
+
+    /**
+     * Score is at most the stored value (no move raised alpha)
+     */
+    public static final int UPPER = 3;
+
+    /**
+     * Size of table in megabytes, when no other size is given
+     */
+    public static final int DEFAULT_SIZE_MB = 16;
+
+    private static final int ENTRY_SIZE = 16;
+    private static final int BUCKET_SIZE = 64;
+    private static final int ENTRIES_PER_BUCKET = BUCKET_SIZE / ENTRY_SIZE;
+
+    //one buffer can have at most 2 GB, bigger tables are split to segments
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+
+    private static final int AGE_SHIFT = 38;
+    private static final int AGE_MASK = 0x3F;
+
+    private ByteBuffer[] segments;
+    private long buckets;
+    private volatile int age;
+
+    public TranspositionTable() {
+        this(DEFAULT_SIZE_MB);
+    }
+
+    /**
+     *
+     * @param sizeMb size of table in megabytes
+     */
+    public TranspositionTable(long sizeMb) {
+        resize(sizeMb);
+    }
+
+    /**
+     * Allocates new memory of given size, all entries are lost
+     *
+     * @param sizeMb size of table in megabytes
+     */
+    public final void resize(long sizeMb) {
+        if (sizeMb <= 0) {
+            throw new IllegalArgumentException("Size of table must be positive: " + sizeMb);
+        }
+        long bytes = sizeMb * 1024 * 1024;
+        //old buffers must be unreachable before new ones are allocated
+        segments = null;
+        ByteBuffer[] newSegments = new ByteBuffer[(int) ((bytes + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT)];
+        for (int i = 0; i < newSegments.length; i++) {
+            newSegments[i] = allocate((int) Math.min(SEGMENT_SIZE, bytes - i * SEGMENT_SIZE));
+        }
+        segments = newSegments;
+        buckets = bytes / BUCKET_SIZE;
+        age = 0;
+    }
+
+    private static ByteBuffer allocate(int size) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(size + BUCKET_SIZE);
+        try {
+            //available since Java 9, buckets are then aligned to cache lines
+            Method alignedSlice = ByteBuffer.class.getMethod("alignedSlice", int.class);
+            buffer = (ByteBuffer) alignedSlice.invoke(buffer, BUCKET_SIZE);
+        } catch (ReflectiveOperationException ex) {
+            //buckets may span two cache lines on older runtimes
+        }
+        return buffer.order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Marks start of a new search, entries of older searches are replaced
+     * first
+     */
+    public void newSearch() {
+        age = (age + 1) & AGE_MASK;
+    }
+
+    /**
+     *
+     * @param hash Zobrist hash of position
+     * @return packed entry, 0 if position is not in table
+     */
+    public long probe(long hash) {
+        long offset = bucketOffset(hash);
+        ByteBuffer segment = segments[(int) (offset >>> SEGMENT_SHIFT)];
+        int position = (int) (offset & (SEGMENT_SIZE - 1));
+        for (int i = 0; i < ENTRIES_PER_BUCKET; i++, position += ENTRY_SIZE) {
+            long data = segment.getLong(position + 8);
+            if ((segment.getLong(position) ^ data) == hash) {
+                return data;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Stores entry to the bucket of position
+     *
+     * @param hash Zobrist hash of position
+     * @param depth remaining depth of search
+     * @param bound EXACT, LOWER or UPPER
+     * @param score score from point of view of side to move
+     * @param move packed best move, 0 if unknown
+     */
+    public void store(long hash, int depth, int bound, int score, int move) {
+        long offset = bucketOffset(hash);
+        ByteBuffer segment = segments[(int) (offset >>> SEGMENT_SHIFT)];
+        int bucket = (int) (offset & (SEGMENT_SIZE - 1));
+
+        int currentAge = age;
+        int position = -1;
+        int weakest = bucket;
+        int weakestValue = Integer.MAX_VALUE;
+        for (int i = 0; i < ENTRIES_PER_BUCKET; i++) {
+            int entry = bucket + i * ENTRY_SIZE;
+            long data = segment.getLong(entry + 8);
+            if ((segment.getLong(entry) ^ data) == hash) {
+                position = entry;
+                if (move == 0) {
+                    //keep best move found by earlier search of the same position
+                    move = getMove(data);
+                }
+                break;
+            }
+            if (i < ENTRIES_PER_BUCKET - 1) {
+                int value = getAge(data) == currentAge ? getDepth(data) : -1;
+                if (value < weakestValue) {
+                    weakestValue = value;
+                    weakest = entry;
+                }
+            }
+        }
+        if (position < 0) {
+            position = depth >= weakestValue ? weakest : bucket + (ENTRIES_PER_BUCKET - 1) * ENTRY_SIZE;
+        }
+        long data = pack(depth, bound, score, move, currentAge);
+        segment.putLong(position, hash ^ data);
+        segment.putLong(position + 8, data);
+    }
+
+    private long bucketOffset(long hash) {
+        //high half of hash scaled to number of buckets, which need not be
+        //a power of two
+        return ((hash >>> 32) * buckets >>> 32) * BUCKET_SIZE;
+    }
+
+    /**
+     * Removes all entries, memory is reused
+     */
+    public void clear() {
+        for (ByteBuffer segment : segments) {
+            for (int position = 0; position + 8 <= segment.capacity(); position += 8) {
+                segment.putLong(position, 0);
+            }
+        }
+        age = 0;
+    }
+
+    /**
+     *
+     * @return number of entries
+     */
+    public long getSize() {
+        return buckets * ENTRIES_PER_BUCKET;
+    }
+
+    private static long pack(int depth, int bound, int score, int move, int age) {
+        return (score & 0xFFFFL) | (long) (depth & 0xFF) << 16 | (long) bound << 24
+                | (long) (move & 0xFFF) << 26 | (long) age << AGE_SHIFT;
+    }
+
+    /**
+     *
+     * @param entry packed entry
+     * @return score of entry
+     */
+    public static int getScore(long entry) {
+        return (short) entry;
+    }
+
+    /**
+     *
+     * @param entry packed entry
+     * @return depth of entry
+     */
+    public static int getDepth(long entry) {
+        return (int) (entry >>> 16) & 0xFF;
+    }
+
+    /**
+     *
+     * @param entry packed entry
+     * @return EXACT, LOWER or UPPER, 0 for empty entry
+     */
+    public static int getBound(long entry) {
+        return (int) (entry >>> 24) & 0x3;
+    }
+
+    /**
+     *
+     * @param entry packed entry
+     * @return packed best move, 0 if unknown
+     */
+    public static int getMove(long entry) {
+        return (int) (entry >>> 26) & 0xFFF;
+    }
+
+    private static int getAge(long entry) {
+        return (int) (entry >>> AGE_SHIFT) & AGE_MASK;
+    }
+
+    /**
+     * Packs start and end spot of move to 12 bits
+     *
+     * @param move
+     * @return packed move, never 0 because start and end differ
+     */
+    public static int packMove(Move move) {
+        return (move.getStartY() * 8 + move.getStartX()) << 6 | (move.getEndY() * 8 + move.getEndX());
+    }
+
+}
@@ -38,6 +38,11 @@ public class Bishop extends Piece {
         return false;
     }
 
+    @Override
+    public PieceType getType() {
+        return PieceType.BISHOP;
+    }
+
     @Override
     public String getTextRepresantation() {
         if (color == Color.WHITE) {
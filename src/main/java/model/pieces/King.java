@@ -52,6 +52,11 @@ public class King extends Piece {
         return false;
     }
 
+    @Override
+    public PieceType getType() {
+        return PieceType.KING;
+    }
+
     @Override
     public String getTextRepresantation() {
         if (color == Color.WHITE) {
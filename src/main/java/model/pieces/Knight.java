@@ -37,6 +37,11 @@ public class Knight extends Piece {
         return false;
     }
 
+    @Override
+    public PieceType getType() {
+        return PieceType.KNIGHT;
+    }
+
     @Override
     public String getTextRepresantation() {
         if (color == Color.WHITE) {
@@ -50,8 +55,8 @@ public class Knight extends Piece {
         List<Move> moves = new ArrayList<>();
         Coordinate myCoord = board.findPiece(this);
 
-        //square
-        for (int i = -1; i <= 1; i++) {
+        //square, jumps always move one block sideways
+        for (int i = -1; i <= 1; i += 2) {
             //up
             Move moveUp = new Move(board, myCoord, new Coordinate(myCoord.getX() + i, myCoord.getY() - 2));
             if (moveUp.isAtBoard() && isMoveValid(board, moveUp)) {
@@ -86,6 +86,11 @@ public class Pawn extends Piece {
         return false;
     }
 
+    @Override
+    public PieceType getType() {
+        return PieceType.PAWN;
+    }
+
     @Override
     public String getTextRepresantation() {
         if (color == Color.WHITE) {
@@ -99,31 +104,21 @@ public class Pawn extends Piece {
         List<Move> moves = new ArrayList<>();
         Coordinate myCoord = board.findPiece(this);
 
+        //white pawns move upwards
+        int direction = color == Color.WHITE ? -1 : 1;
+
         //one block forward
         for (int i = -1; i <= 1; i++) {
-            //white
-            Move moveWhite = new Move(board, myCoord, new Coordinate(myCoord.getX() + i, myCoord.getY() - 1));
-            if (moveWhite.isAtBoard() && isMoveValid(board, moveWhite)) {
-                moves.add(moveWhite);
-            }
-
-            //black
-            Move moveBlack = new Move(board, myCoord, new Coordinate(myCoord.getX() + i, myCoord.getY() + 1));
-            if (moveBlack.isAtBoard() && isMoveValid(board, moveBlack)) {
-                moves.add(moveBlack);
+            Move move = new Move(board, myCoord, new Coordinate(myCoord.getX() + i, myCoord.getY() + direction));
+            if (move.isAtBoard() && isMoveValid(board, move)) {
+                moves.add(move);
             }
         }
 
         //two steps forward
-        //white
-        Move moveWhite = new Move(board, myCoord, new Coordinate(myCoord.getX(), myCoord.getY() - 2));
-        if (moveWhite.isAtBoard() && isMoveValid(board, moveWhite)) {
-            moves.add(moveWhite);
-        }
-        //black
-        Move moveBlack = new Move(board, myCoord, new Coordinate(myCoord.getX(), myCoord.getY() + 2));
-        if (moveBlack.isAtBoard() && isMoveValid(board, moveBlack)) {
-            moves.add(moveBlack);
+        Move jump = new Move(board, myCoord, new Coordinate(myCoord.getX(), myCoord.getY() + 2 * direction));
+        if (jump.isAtBoard() && isMoveValid(board, jump)) {
+            moves.add(jump);
         }
         return moves;
     }
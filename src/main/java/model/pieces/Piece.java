@@ -44,6 +44,12 @@ public abstract class Piece {
      */
     public abstract List<Move> getAllAvailableMoves(Board board);
 
+    /**
+     *
+     * @return type of piece
+     */
+    public abstract PieceType getType();
+
     /**
      *
      * @return String represantation for specific piece
@@ -65,6 +71,16 @@ public abstract class Piece {
         return moves;
     }
 
+    /**
+     *
+     * @return new piece of the same type, color and moved flag
+     */
+    public Piece copy() {
+        Piece piece = getType().createPiece(color);
+        piece.setMoved(moved);
+        return piece;
+    }
+
     /**
      *
      * @param target target piece
@@ -84,29 +100,12 @@ public abstract class Piece {
      * @return true if move path is not blocked by other piece
      */
     protected boolean isPathBlocked(Board board, Move move) {
-        int xDifference = move.getStartX() - move.getEndX();
-        int yDifference = move.getStartY() - move.getEndY();
-
-        for (int i = 1; i < Math.max(Math.abs(xDifference), Math.abs(yDifference)); i++) {
-            Coordinate coord = new Coordinate(move.getStartX(), move.getStartY());
-
-            if (xDifference != 0) {
-                if (xDifference < 0) {
-                    coord.setX(move.getStartX() + i);
-                } else {
-                    coord.setX(move.getStartX() - i);
-                }
-            }
-
-            if (yDifference != 0) {
-                if (yDifference < 0) {
-                    coord.setY(move.getStartY() + i);
-                } else {
-                    coord.setY(move.getStartY() - i);
-                }
-            }
+        int xStep = Integer.signum(move.getEndX() - move.getStartX());
+        int yStep = Integer.signum(move.getEndY() - move.getStartY());
+        int distance = Math.max(Math.abs(move.getEndX() - move.getStartX()), Math.abs(move.getEndY() - move.getStartY()));
 
-            if (board.hasPiece(coord)) {
+        for (int i = 1; i < distance; i++) {
+            if (board.getPieceAt(move.getStartX() + i * xStep, move.getStartY() + i * yStep) != null) {
                 return true;
             }
         }
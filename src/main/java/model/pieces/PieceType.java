@@ -0,0 +1,79 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+package model.pieces;
+
+import model.chess.Color;
+
+/**
+ *
+ * @author ottovodvarka
+ */
+public enum PieceType {
+
+    PAWN('P', 100), KNIGHT('N', 320), BISHOP('B', 330), ROOK('R', 500), QUEEN('Q', 900), KING('K', 0);
+
+    private final char symbol;
+    private final int value;
+
+    private PieceType(char symbol, int value) {
+        this.symbol = symbol;
+        this.value = value;
+    }
+
+    /**
+     *
+     * @return upper case letter used for this type in notations
+     */
+    public char getSymbol() {
+        return symbol;
+    }
+
+    /**
+     *
+     * @return material value in centipawns, king has no material value
+     */
+    public int getValue() {
+        return value;
+    }
+
+    /**
+     *
+     * @param color
+     * @return new piece of this type
+     */
+    public Piece createPiece(Color color) {
+        switch (this) {
+            case PAWN:
+                return new Pawn(color);
+            case KNIGHT:
+                return new Knight(color);
+            case BISHOP:
+                return new Bishop(color);
+            case ROOK:
+                return new Rook(color);
+            case QUEEN:
+                return new Queen(color);
+            default:
+                return new King(color);
+        }
+    }
+
+    /**
+     *
+     * @param symbol letter of piece, case is ignored
+     * @return type with that letter or null
+     */
+    public static PieceType fromSymbol(char symbol) {
+        char upper = Character.toUpperCase(symbol);
+        for (PieceType type : values()) {
+            if (type.symbol == upper) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+}
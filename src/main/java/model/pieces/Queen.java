@@ -41,6 +41,11 @@ public class Queen extends Piece {
         return false;
     }
 
+    @Override
+    public PieceType getType() {
+        return PieceType.QUEEN;
+    }
+
     @Override
     public String getTextRepresantation() {
         if (color == Color.WHITE) {
@@ -38,6 +38,11 @@ public class Rook extends Piece {
         return false;
     }
 
+    @Override
+    public PieceType getType() {
+        return PieceType.ROOK;
+    }
+
     @Override
     public String getTextRepresantation() {
         if (color == Color.WHITE) {
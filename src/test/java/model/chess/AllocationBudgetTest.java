@@ -0,0 +1,101 @@
+package model.chess;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import model.engine.DefaultEvaluation;
+import model.engine.Search;
+import model.engine.SearchLimits;
+import model.engine.SearchResult;
+import model.engine.TranspositionTable;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Fails the build when hot paths allocate more bytes than allowed. Budgets
+ * can be changed by system properties, e.g. -Dchess.allocation.move=256
+ */
+public class AllocationBudgetTest {
+
+    private static final long MOVE_BUDGET = Long.getLong("chess.allocation.move", 512);
+    private static final long PERFT_BUDGET = Long.getLong("chess.allocation.perft", 768);
+    private static final long SEARCH_BUDGET = Long.getLong("chess.allocation.search", 3072);
+
+    private static final int ROUNDS = 5;
+
+    private static com.sun.management.ThreadMXBean threads;
+
+    private List<Board> boards;
+
+    @BeforeClass
+    public static void setUpClass() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean) {
+            threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        }
+        assumeTrue(threads != null && threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    @Before
+    public void setUp() {
+        PositionGenerator generator = new PositionGenerator(5);
+        boards = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            boards.add(generator.nextPlayout());
+        }
+    }
+
+    @Test
+    public void bytesPerGeneratedMove() throws Exception {
+        long best = Long.MAX_VALUE;
+        //first rounds are warm up for JIT, the best round is checked
+        for (int round = 0; round < ROUNDS; round++) {
+            long moves = 0;
+            long start = allocatedBytes();
+            for (Board board : boards) {
+                moves += board.getAllLegalMovesByColor(board.getSideToMove()).size();
+            }
+            best = Math.min(best, (allocatedBytes() - start) / moves);
+        }
+        assertTrue("Move generation allocates " + best + " bytes per move, budget is " + MOVE_BUDGET,
+                best <= MOVE_BUDGET);
+    }
+
+    @Test
+    public void bytesPerPerftNode() throws Exception {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            Board board = new Board();
+            long start = allocatedBytes();
+            long nodes = Perft.perft(board, 3);
+            best = Math.min(best, (allocatedBytes() - start) / nodes);
+        }
+        assertTrue("Perft allocates " + best + " bytes per node, budget is " + PERFT_BUDGET,
+                best <= PERFT_BUDGET);
+    }
+
+    @Test
+    public void bytesPerSearchNode() throws Exception {
+        long best = Long.MAX_VALUE;
+        TranspositionTable table = new TranspositionTable();
+        for (int round = 0; round < ROUNDS; round++) {
+            Board board = new Board();
+            table.clear();
+            long start = allocatedBytes();
+            SearchResult result = new Search(new DefaultEvaluation(), table).search(board, new SearchLimits(4, 0, 0));
+            best = Math.min(best, (allocatedBytes() - start) / result.getNodes());
+        }
+        assertTrue("Search allocates " + best + " bytes per node, budget is " + SEARCH_BUDGET,
+                best <= SEARCH_BUDGET);
+    }
+
+    private static long allocatedBytes() {
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+}
@@ -290,4 +290,228 @@ public class BoardTest {
         assertTrue(board.isCastlingAvailable(castling, Color.WHITE));
     }
 
+    /**
+     * Test of getHash method, of class Board.
+     */
+    @Test
+    public void testGetHash() {
+        Board other = new Board();
+        assertEquals(other.getHash(), board.getHash());
+        assertEquals(board.computeHash(), board.getHash());
+
+        //same position reached by different order of moves
+        board.moveTo(new Move(board, new Coordinate(6, 7), new Coordinate(5, 5)));
+        board.moveTo(new Move(board, new Coordinate(6, 0), new Coordinate(5, 2)));
+        board.moveTo(new Move(board, new Coordinate(1, 7), new Coordinate(2, 5)));
+        other.moveTo(new Move(other, new Coordinate(1, 7), new Coordinate(2, 5)));
+        other.moveTo(new Move(other, new Coordinate(6, 0), new Coordinate(5, 2)));
+        other.moveTo(new Move(other, new Coordinate(6, 7), new Coordinate(5, 5)));
+        assertEquals(other.getHash(), board.getHash());
+
+        other.setSideToMove(Color.WHITE);
+        assertNotEquals(other.getHash(), board.getHash());
+
+        Board jump = new Board();
+        jump.moveTo(new Move(jump, new Coordinate(4, 6), new Coordinate(4, 4)));
+        Board noJump = Fen.parse(Fen.toFen(jump).replace(" e3 ", " - "));
+        assertNotEquals(noJump.getHash(), jump.getHash());
+    }
+
+    /**
+     * Test of hash after addPiece, removePiece and removePieceAt, which change
+     * castling rights, of class Board.
+     */
+    @Test
+    public void testHashAfterBoardEdits() {
+        board.removePieceAt(new Coordinate(7, 7));
+        assertEquals(board.computeHash(), board.getHash());
+        board.addPiece(new Rook(Color.WHITE), new Coordinate(7, 7));
+        assertEquals(board.computeHash(), board.getHash());
+        assertEquals(new Board().getHash(), board.getHash());
+
+        board.addPiece(new Queen(Color.BLACK), new Coordinate(0, 0));
+        assertEquals(board.computeHash(), board.getHash());
+        board.addPiece(new Rook(Color.BLACK), new Coordinate(0, 0));
+        assertEquals(board.computeHash(), board.getHash());
+
+        board.removePieceAt(new Coordinate(4, 7));
+        assertEquals(board.computeHash(), board.getHash());
+        board.removePiece(board.getPieceAt(new Coordinate(4, 0)));
+        assertEquals(board.computeHash(), board.getHash());
+        assertEquals(0, board.getCastlingRights());
+
+        Board.setHashVerification(true);
+        try {
+            board.addPiece(new King(Color.WHITE), new Coordinate(4, 7));
+            board.addPiece(new King(Color.BLACK), new Coordinate(4, 0));
+            board.makeMove(new Move(board, new Coordinate(6, 7), new Coordinate(5, 5)));
+            assertEquals(board.computeHash(), board.getHash());
+        } finally {
+            Board.setHashVerification(false);
+        }
+    }
+
+    /**
+     * Test of incremental update of hash, of class Board.
+     */
+    @Test
+    public void testHashVerification() {
+        Board.setHashVerification(true);
+        try {
+            PositionGenerator generator = new PositionGenerator(9);
+            for (int i = 0; i < 20; i++) {
+                Board position = generator.nextPlayout();
+                assertEquals(position.computeHash(), position.getHash());
+                long hash = position.getHash();
+                for (Move move : position.getAllLegalMovesByColor(position.getSideToMove())) {
+                    position.makeMove(move);
+                    position.undoMove();
+                }
+                assertEquals(hash, position.getHash());
+                assertEquals(Fen.parse(Fen.toFen(position)).getHash(), position.getHash());
+            }
+        } finally {
+            Board.setHashVerification(false);
+        }
+    }
+
+    /**
+     * Test of getAllCapturesByColor method, of class Board.
+     */
+    @Test
+    public void testGetAllCapturesByColor() {
+        PositionGenerator generator = new PositionGenerator(11);
+        List<Board> positions = new ArrayList<>();
+        positions.add(Fen.parse("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1"));
+        positions.add(Fen.parse("8/2p5/3p4/KP5r/1R3pPk/8/4P3/8 b - g3 0 1"));
+        positions.add(Fen.parse("n1n5/PPPk4/8/8/8/8/4Kppp/5N1N b - - 0 1"));
+        for (int i = 0; i < 50; i++) {
+            positions.add(generator.nextPlayout());
+        }
+        for (Board position : positions) {
+            Color color = position.getSideToMove();
+            List<String> expected = new ArrayList<>();
+            for (Move move : position.getAllAvailableMovesByColor(color)) {
+                if (position.hasPiece(move.getEnd()) || move.isEnPassant() || move.isPromotion()) {
+                    expected.add(describe(move));
+                }
+            }
+            List<String> captures = new ArrayList<>();
+            for (Move move : position.getAllCapturesByColor(color)) {
+                captures.add(describe(move));
+            }
+            expected.sort(null);
+            captures.sort(null);
+            assertEquals(Fen.toFen(position), expected, captures);
+        }
+    }
+
+    private static String describe(Move move) {
+        return San.squareName(move.getStart()) + San.squareName(move.getEnd())
+                + (move.isEnPassant() ? " ep" : "") + (move.isPromotion() ? " q" : "");
+    }
+
+    /**
+     * Test of makeNullMove method, of class Board.
+     */
+    @Test
+    public void testMakeNullMove() {
+        Board board = new Board();
+        board.moveTo(new Move(board, new Coordinate(4, 6), new Coordinate(4, 4)));
+        String fen = Fen.toFen(board);
+        long hash = board.getHash();
+
+        board.makeNullMove();
+        assertEquals(Color.WHITE, board.getSideToMove());
+        assertEquals(-1, board.getEnPassantFile());
+        assertEquals(board.computeHash(), board.getHash());
+
+        board.undoMove();
+        assertEquals(fen, Fen.toFen(board));
+        assertEquals(hash, board.getHash());
+    }
+
+    /**
+     * Test of isInCheck method after moves, of class Board.
+     */
+    @Test
+    public void testIsInCheckAfterMove() throws Exception {
+        //rook on e1 is behind the knight, bishop checks directly from b5
+        Board board = Fen.parse("4k3/8/8/8/4N3/3B4/8/4R1K1 w - - 0 1");
+        assertFalse(board.isInCheck(Color.BLACK));
+
+        board.makeMove(new Move(board, new Coordinate(4, 4), new Coordinate(2, 5)));
+        assertTrue(board.isInCheck(Color.BLACK));
+        board.undoMove();
+        assertFalse(board.isInCheck(Color.WHITE));
+
+        board.makeMove(new Move(board, new Coordinate(3, 5), new Coordinate(1, 3)));
+        assertTrue(board.isInCheck(Color.BLACK));
+        board.undoMove();
+
+        board.makeMove(new Move(board, new Coordinate(6, 7), new Coordinate(6, 6)));
+        assertFalse(board.isInCheck(Color.BLACK));
+        board.undoMove();
+
+        //king moved by addPiece is found too
+        board.removePieceAt(new Coordinate(4, 0));
+        board.addPiece(new King(Color.BLACK), new Coordinate(0, 0));
+        board.setSideToMove(Color.BLACK);
+        assertFalse(board.isInCheck(Color.BLACK));
+        board.removePieceAt(new Coordinate(4, 4));
+        board.addPiece(new King(Color.BLACK), new Coordinate(4, 2));
+        board.removePieceAt(new Coordinate(0, 0));
+        assertTrue(board.isInCheck(Color.BLACK));
+    }
+
+    /**
+     * Test of see method, of class Board.
+     */
+    @Test
+    public void testSee() throws Exception {
+        //undefended pawn
+        Board board = Fen.parse("1k1r4/1pp4p/p7/4p3/8/P5P1/1PP4P/2K1R3 w - - 0 1");
+        assertEquals(100, board.see(new Move(board, new Coordinate(4, 7), new Coordinate(4, 3))));
+
+        //queen on e1 and black queen on h8 are x-rays behind rook and bishop
+        board = Fen.parse("1k1r3q/1ppn3p/p4b2/4p3/8/P2N2P1/1PP1R1BP/2K1Q3 w - - 0 1");
+        long hash = board.getHash();
+        assertEquals(-220, board.see(new Move(board, new Coordinate(3, 5), new Coordinate(4, 3))));
+        assertEquals(hash, board.getHash());
+
+        //pawn exchange
+        board = Fen.parse("4k3/8/2p5/3p4/4P3/8/8/4K3 w - - 0 1");
+        assertEquals(0, board.see(new Move(board, new Coordinate(4, 4), new Coordinate(3, 3))));
+
+        //rook doubled behind rook and queen behind rook
+        board = Fen.parse("3rk3/3r4/8/3p4/8/8/3R4/3QK3 w - - 0 1");
+        assertEquals(-400, board.see(new Move(board, new Coordinate(3, 6), new Coordinate(3, 3))));
+
+        //queen takes knight defended by pawn
+        board = Fen.parse("4k3/8/4p3/3n4/8/8/8/3QK3 w - - 0 1");
+        assertEquals(-580, board.see(new Move(board, new Coordinate(3, 7), new Coordinate(3, 3))));
+    }
+
+    /**
+     * Test of hasLegalMove method, of class Board.
+     */
+    @Test
+    public void testHasLegalMove() throws Exception {
+        assertTrue(new Board().hasLegalMove(Color.WHITE));
+
+        //mate and stalemate
+        Board board = Fen.parse("R5k1/5ppp/8/8/8/8/8/6K1 b - - 0 1");
+        assertFalse(board.hasLegalMove(Color.BLACK));
+        assertTrue(board.isCheckMate(Color.BLACK));
+        board = Fen.parse("k7/2Q5/1K6/8/8/8/8/8 b - - 0 1");
+        assertFalse(board.hasLegalMove(Color.BLACK));
+        assertTrue(board.isStalemate(Color.BLACK));
+
+        //only move is capture of the checking rook
+        board = Fen.parse("7k/6pp/8/8/8/8/8/K5R1 w - - 0 1");
+        board.makeMove(new Move(board, new Coordinate(6, 7), new Coordinate(6, 0)));
+        assertTrue(board.hasLegalMove(Color.BLACK));
+        assertFalse(board.isCheckMate(Color.BLACK));
+    }
+
 }
@@ -0,0 +1,49 @@
+package model.chess;
+
+import model.pieces.King;
+import model.pieces.Rook;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FenTest {
+
+    @Test
+    public void parse() throws Exception {
+        Board board = Fen.parse(Fen.START);
+        Board expected = new Board();
+
+        assertEquals(expected.getNumberOfPieces(), board.getNumberOfPieces());
+        assertEquals(expected.findKing(Color.WHITE), board.findKing(Color.WHITE));
+        assertEquals(Color.WHITE, board.getSideToMove());
+        assertEquals(Board.WHITE_KINGSIDE | Board.WHITE_QUEENSIDE | Board.BLACK_KINGSIDE | Board.BLACK_QUEENSIDE,
+                board.getCastlingRights());
+        assertEquals(-1, board.getEnPassantFile());
+    }
+
+    @Test
+    public void parseState() throws Exception {
+        Board board = Fen.parse("rnbqkbnr/pp1ppppp/8/2p5/4P3/8/PPPP1PPP/RNBQK2R w Kq c6 0 2");
+
+        assertEquals(Board.WHITE_KINGSIDE | Board.BLACK_QUEENSIDE, board.getCastlingRights());
+        assertEquals(2, board.getEnPassantFile());
+        assertTrue(board.getPieceAt(new Coordinate(4, 0)) instanceof King);
+        assertFalse(board.getPieceAt(new Coordinate(4, 0)).hasMoved());
+        assertTrue(board.getPieceAt(new Coordinate(7, 0)) instanceof Rook);
+        assertTrue(board.getPieceAt(new Coordinate(7, 0)).hasMoved());
+    }
+
+    @Test
+    public void toFen() throws Exception {
+        assertEquals(Fen.START, Fen.toFen(new Board()));
+
+        String fen = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R b Kq - 0 1";
+        assertEquals(fen, Fen.toFen(Fen.parse(fen)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidFen() throws Exception {
+        Fen.parse("rnbqkbnr/pppppppp/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1");
+    }
+
+}
@@ -0,0 +1,53 @@
+package model.chess;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PerftTest {
+
+    @Test
+    public void perft() throws Exception {
+        Board board = new Board();
+
+        assertEquals(1, Perft.perft(board, 0));
+        assertEquals(20, Perft.perft(board, 1));
+        assertEquals(400, Perft.perft(board, 2));
+        assertEquals(8902, Perft.perft(board, 3));
+    }
+
+    @Test
+    public void perftCastlingAndEnPassant() throws Exception {
+        Board castling = Fen.parse("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        assertEquals(48, Perft.perft(castling, 1));
+        assertEquals(2039, Perft.perft(castling, 2));
+
+        Board enPassant = Fen.parse("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1");
+        assertEquals(2812, Perft.perft(enPassant, 3));
+    }
+
+    @Test
+    public void undoMove() throws Exception {
+        PositionGenerator generator = new PositionGenerator(11);
+        for (int i = 0; i < 20; i++) {
+            Board board = generator.nextPlayout();
+            String signature = PositionGenerator.getMaterialSignature(board);
+            int rights = board.getCastlingRights();
+            int enPassant = board.getEnPassantFile();
+            Color side = board.getSideToMove();
+            int history = board.getHistorySize();
+
+            for (Move move : board.getAllLegalMovesByColor(side)) {
+                board.makeMove(move);
+                board.undoMove();
+            }
+
+            assertEquals(signature, PositionGenerator.getMaterialSignature(board));
+            assertEquals(rights, board.getCastlingRights());
+            assertEquals(enPassant, board.getEnPassantFile());
+            assertEquals(side, board.getSideToMove());
+            assertEquals(history, board.getHistorySize());
+        }
+    }
+
+}
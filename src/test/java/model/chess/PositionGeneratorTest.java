@@ -0,0 +1,144 @@
+package model.chess;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PositionGeneratorTest {
+
+    @Test
+    public void nextPlayout() throws Exception {
+        PositionGenerator generator = new PositionGenerator(1);
+        for (int i = 0; i < 20; i++) {
+            Board board = generator.nextPlayout();
+            assertFalse(board.isInCheck(board.getSideToMove().opposite()));
+            assertNotNull(board.findKing(Color.WHITE));
+            assertNotNull(board.findKing(Color.BLACK));
+        }
+    }
+
+    @Test
+    public void sameSeedSamePositions() throws Exception {
+        PositionGenerator generator1 = new PositionGenerator(42);
+        PositionGenerator generator2 = new PositionGenerator(42);
+        for (int i = 0; i < 5; i++) {
+            Board board1 = generator1.nextPlayout();
+            Board board2 = generator2.nextPlayout();
+            assertEquals(PositionGenerator.getMaterialSignature(board1), PositionGenerator.getMaterialSignature(board2));
+            assertEquals(board1.getLastMove(), board2.getLastMove());
+        }
+    }
+
+    @Test
+    public void nextPlacement() throws Exception {
+        PositionGenerator generator = new PositionGenerator(7);
+        generator.setMaterialSignature("KRPvKR");
+        generator.setInCheck(true);
+        for (int i = 0; i < 20; i++) {
+            Board board = generator.nextPlacement();
+            assertEquals("KRPvKR", PositionGenerator.getMaterialSignature(board));
+            assertTrue(board.isInCheck(board.getSideToMove()));
+            assertFalse(board.isInCheck(board.getSideToMove().opposite()));
+            assertEquals(0, board.getCastlingRights());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidSignature() throws Exception {
+        new PositionGenerator(0).setMaterialSignature("KvKPPPPPPPPP");
+    }
+
+    @Test
+    public void positionFile() throws Exception {
+        PositionGenerator generator = new PositionGenerator(3);
+        List<Board> boards = new ArrayList<>();
+        File file = File.createTempFile("positions", ".bin");
+        file.deleteOnExit();
+        try (PositionFile.Writer writer = new PositionFile.Writer(file)) {
+            for (int i = 0; i < 50; i++) {
+                Board board = generator.nextPlayout();
+                boards.add(board);
+                writer.write(board);
+            }
+        }
+        try (PositionFile.Reader reader = new PositionFile.Reader(file)) {
+            for (Board expected : boards) {
+                Board board = reader.read();
+                assertNotNull(board);
+                assertEquals(expected.getSideToMove(), board.getSideToMove());
+                assertEquals(expected.getCastlingRights(), board.getCastlingRights());
+                assertEquals(expected.getEnPassantFile(), board.getEnPassantFile());
+                for (int x = 0; x < Board.BOARD_SIZE; x++) {
+                    for (int y = 0; y < Board.BOARD_SIZE; y++) {
+                        Coordinate coord = new Coordinate(x, y);
+                        assertEquals(expected.hasPiece(coord), board.hasPiece(coord));
+                        if (board.hasPiece(coord)) {
+                            assertEquals(expected.getPieceAt(coord).getType(), board.getPieceAt(coord).getType());
+                            assertEquals(expected.getPieceAt(coord).getColor(), board.getPieceAt(coord).getColor());
+                        }
+                    }
+                }
+            }
+            assertNull(reader.read());
+        }
+    }
+
+    @Test
+    public void writeFileDoesNotDependOnThreads() throws Exception {
+        PositionGenerator generator = new PositionGenerator(5);
+        File file1 = File.createTempFile("positions", ".bin");
+        File file4 = File.createTempFile("positions", ".bin");
+        file1.deleteOnExit();
+        file4.deleteOnExit();
+
+        assertEquals(600, generator.writeFile(file1, 600, 1, false));
+        assertEquals(600, generator.writeFile(file4, 600, 4, false));
+        assertArrayEquals(Files.readAllBytes(file1.toPath()), Files.readAllBytes(file4.toPath()));
+    }
+
+    @Test
+    public void nearSeedsGiveDifferentFiles() throws Exception {
+        File file0 = File.createTempFile("positions", ".bin");
+        File file1 = File.createTempFile("positions", ".bin");
+        file0.deleteOnExit();
+        file1.deleteOnExit();
+        new PositionGenerator(0).writeFile(file0, 2 * PositionGenerator.BATCH_SIZE, 1, false);
+        new PositionGenerator(1).writeFile(file1, 2 * PositionGenerator.BATCH_SIZE, 1, false);
+
+        //first batch of seed 1 is neither the first nor the second batch of seed 0
+        Set<String> first = new HashSet<>();
+        try (PositionFile.Reader reader = new PositionFile.Reader(file1)) {
+            for (int i = 0; i < PositionGenerator.BATCH_SIZE; i++) {
+                first.add(Fen.toFen(reader.read()));
+            }
+        }
+        int shared = 0;
+        try (PositionFile.Reader reader = new PositionFile.Reader(file0)) {
+            Board board;
+            while ((board = reader.read()) != null) {
+                if (first.contains(Fen.toFen(board))) {
+                    shared++;
+                }
+            }
+        }
+        assertEquals(0, shared);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void writeFileFailsWhenNoPositionMatches() throws Exception {
+        PositionGenerator generator = new PositionGenerator(0);
+        generator.setMaterialSignature("KvK");
+        generator.setInCheck(true);
+        File file = File.createTempFile("positions", ".bin");
+        file.deleteOnExit();
+        generator.writeFile(file, 10, 2, true);
+    }
+
+}
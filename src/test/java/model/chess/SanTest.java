@@ -0,0 +1,46 @@
+package model.chess;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SanTest {
+
+    @Test
+    public void toSan() throws Exception {
+        Board board = new Board();
+
+        assertEquals("e4", San.toSan(board, new Move(board, new Coordinate(4, 6), new Coordinate(4, 4))));
+        assertEquals("Nf3", San.toSan(board, new Move(board, new Coordinate(6, 7), new Coordinate(5, 5))));
+    }
+
+    @Test
+    public void toSanSpecialMoves() throws Exception {
+        Board board = Fen.parse("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+        assertEquals("O-O", San.toSan(board, new Move(board, new Coordinate(4, 7), new Coordinate(6, 7))));
+        assertEquals("O-O-O", San.toSan(board, new Move(board, new Coordinate(4, 7), new Coordinate(2, 7))));
+        assertEquals("Rxa8+", San.toSan(board, new Move(board, new Coordinate(0, 7), new Coordinate(0, 0))));
+        assertEquals("Rb1", San.toSan(board, new Move(board, new Coordinate(0, 7), new Coordinate(1, 7))));
+
+        Board knights = Fen.parse("4k3/8/8/8/8/8/8/1N2KN2 w - - 0 1");
+        assertEquals("Nbd2", San.toSan(knights, new Move(knights, new Coordinate(1, 7), new Coordinate(3, 6))));
+
+        Board mate = Fen.parse("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        assertEquals("Ra8#", San.toSan(mate, new Move(mate, new Coordinate(0, 7), new Coordinate(0, 0))));
+    }
+
+    @Test
+    public void parse() throws Exception {
+        Board board = Fen.parse("rnbqkbnr/pp1ppppp/8/2pP4/8/8/PPP1PPPP/RNBQKBNR w KQkq c6 0 2");
+
+        assertEquals(new Move(board, new Coordinate(3, 3), new Coordinate(2, 2)), San.parse(board, "dxc6"));
+        assertTrue(San.parse(board, "dxc6").isEnPassant());
+        assertEquals(new Move(board, new Coordinate(6, 7), new Coordinate(5, 5)), San.parse(board, "Nf3!"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parseIllegal() throws Exception {
+        San.parse(new Board(), "e5");
+    }
+
+}
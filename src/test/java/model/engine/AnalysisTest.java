@@ -0,0 +1,84 @@
+package model.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import model.chess.Board;
+import model.chess.Fen;
+import model.chess.San;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class AnalysisTest {
+
+    private final List<SearchResult> results = new ArrayList<>();
+    private final List<Long> times = new ArrayList<>();
+
+    private Analysis createAnalysis() {
+        Executor direct = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                command.run();
+            }
+        };
+        Analysis analysis = new Analysis(new DefaultEvaluation(), new TranspositionTable(1), direct, new SearchListener() {
+            @Override
+            public void iterationFinished(SearchResult result) {
+                synchronized (results) {
+                    results.add(result);
+                    times.add(System.currentTimeMillis());
+                    results.notifyAll();
+                }
+            }
+        });
+        analysis.setThreads(1);
+        return analysis;
+    }
+
+    private SearchResult awaitResult(int count) throws InterruptedException {
+        long end = System.currentTimeMillis() + 10000;
+        synchronized (results) {
+            while (results.size() < count && System.currentTimeMillis() < end) {
+                results.wait(100);
+            }
+            assertTrue(results.size() >= count);
+            return results.get(results.size() - 1);
+        }
+    }
+
+    @Test
+    public void reportsBestLines() throws Exception {
+        Analysis analysis = createAnalysis();
+        analysis.analyze(new Board());
+        SearchResult result = awaitResult(3);
+        analysis.shutdown();
+
+        assertEquals(Analysis.DEFAULT_LINES, result.getLines().size());
+        assertNotEquals(result.getLines().get(0).getMove(), result.getLines().get(1).getMove());
+        assertTrue(result.getLines().get(0).getScore() >= result.getLines().get(2).getScore());
+        synchronized (results) {
+            for (int i = 1; i < times.size(); i++) {
+                //timer may fire a few milliseconds early
+                assertTrue(times.get(i) - times.get(i - 1) >= Analysis.UPDATE_INTERVAL - 20);
+            }
+        }
+    }
+
+    @Test
+    public void restartsWithNewPosition() throws Exception {
+        Analysis analysis = createAnalysis();
+        analysis.analyze(new Board());
+        awaitResult(1);
+        Board board = Fen.parse("4k3/8/8/3q4/8/8/3R4/3K4 w - - 0 1");
+        analysis.analyze(board);
+        synchronized (results) {
+            results.clear();
+        }
+        SearchResult result = awaitResult(2);
+        analysis.shutdown();
+
+        assertEquals("Rxd5", San.toSan(board, result.getMove()));
+    }
+
+}
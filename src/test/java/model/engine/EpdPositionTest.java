@@ -0,0 +1,40 @@
+package model.engine;
+
+import model.chess.Board;
+import model.chess.Coordinate;
+import model.chess.Move;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class EpdPositionTest {
+
+    @Test
+    public void parse() throws Exception {
+        EpdPosition position = new EpdPosition("2rr3k/pp3pp1/1nnqbN1p/3pN3/2pP4/2P3Q1/PPB4P/R4RK1 w - - bm Qg6; id \"WAC.001\";");
+
+        assertEquals("WAC.001", position.getId());
+        assertEquals("2rr3k/pp3pp1/1nnqbN1p/3pN3/2pP4/2P3Q1/PPB4P/R4RK1 w - -", position.getFen());
+
+        Board board = position.createBoard();
+        Move best = new Move(board, new Coordinate(6, 5), new Coordinate(6, 2));
+        assertTrue(position.isSolvedBy(board, best));
+        assertFalse(position.isSolvedBy(board, new Move(board, new Coordinate(6, 5), new Coordinate(6, 4))));
+        assertFalse(position.isSolvedBy(board, null));
+    }
+
+    @Test
+    public void avoidMove() throws Exception {
+        EpdPosition position = new EpdPosition("8/8/8/8/8/5k2/8/4K2R w K - am O-O; id \"castle\";");
+        Board board = position.createBoard();
+
+        assertFalse(position.isSolvedBy(board, new Move(board, new Coordinate(4, 7), new Coordinate(6, 7))));
+        assertTrue(position.isSolvedBy(board, new Move(board, new Coordinate(4, 7), new Coordinate(3, 7))));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void illegalBestMove() throws Exception {
+        new EpdPosition("4k3/8/8/8/8/8/8/4K3 w - - bm Qh5; id \"none\";");
+    }
+
+}
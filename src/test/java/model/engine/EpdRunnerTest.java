@@ -0,0 +1,25 @@
+package model.engine;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class EpdRunnerTest {
+
+    @Test
+    public void solutionTime() throws Exception {
+        EpdPosition solvable = new EpdPosition("4k3/8/8/3q4/8/8/3R4/3K4 w - - bm Rxd5; id \"queen\";");
+        EpdPosition unsolvable = new EpdPosition("4k3/8/8/3q4/8/8/3R4/3K4 w - - am Rxd5; id \"avoid\";");
+        List<EpdRunner.Result> results = new EpdRunner(new SearchLimits(4, 0, 0), 2).run(Arrays.asList(solvable, unsolvable));
+
+        EpdRunner.Result solved = results.get(0);
+        assertTrue(solved.isSolved());
+        assertTrue(solved.getSolutionTime() >= 0);
+        assertTrue(solved.getSolutionTime() <= solved.getSearchResult().getTime());
+        assertFalse(results.get(1).isSolved());
+        assertEquals(-1, results.get(1).getSolutionTime());
+    }
+
+}
@@ -0,0 +1,58 @@
+package model.engine;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import model.chess.Board;
+import model.chess.Fen;
+import model.chess.San;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class HintTest {
+
+    private final AtomicReference<SearchResult> hint = new AtomicReference<>();
+
+    private Hint createHint() {
+        Executor direct = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                command.run();
+            }
+        };
+        return new Hint(new DefaultEvaluation(), new TranspositionTable(1), direct, new SearchListener() {
+            @Override
+            public void iterationFinished(SearchResult result) {
+                hint.set(result);
+            }
+        });
+    }
+
+    @Test
+    public void suggestsMoveWithinBudget() throws Exception {
+        Hint search = createHint();
+        Board board = Fen.parse("4k3/8/8/3q4/8/8/3R4/3K4 w - - 0 1");
+        long start = System.currentTimeMillis();
+        search.request(board);
+        while (hint.get() == null && System.currentTimeMillis() - start < 5000) {
+            Thread.sleep(5);
+        }
+        long time = System.currentTimeMillis() - start;
+        search.shutdown();
+
+        assertEquals("Rxd5", San.toSan(board, hint.get().getMove()));
+        assertTrue("Hint took " + time + " ms", time < 1000);
+    }
+
+    @Test
+    public void cancelledHintIsNotDelivered() throws Exception {
+        Hint search = createHint();
+        search.request(new Board());
+        search.cancel();
+        Thread.sleep(Hint.HINT_TIME + 200);
+        search.shutdown();
+
+        assertNull(hint.get());
+    }
+
+}
@@ -0,0 +1,51 @@
+package model.engine;
+
+import model.chess.Board;
+import model.chess.Fen;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MateSolverTest {
+
+    @Test
+    public void findsShortestMate() throws Exception {
+        Board board = Fen.parse("r1b1kb1r/pppp1ppp/5q2/4n3/3KP3/2N3PN/PPP4P/R1BQ1B1R b kq - 0 1");
+        long hash = board.getHash();
+        SearchResult result = new MateSolver(new ProofTable(1)).solve(board, MateSolver.DEFAULT_MAX_MOVES, 0);
+
+        assertEquals(Search.MATE - 5, result.getScore());
+        assertEquals(5, result.getPrincipalVariation().size());
+        assertTrue(result.getPrincipalVariationSan(), result.getPrincipalVariationSan().startsWith("Bc5+"));
+        assertTrue(result.getPrincipalVariationSan(), result.getPrincipalVariationSan().endsWith("#"));
+        assertEquals(hash, board.getHash());
+    }
+
+    @Test
+    public void noMateWithinMoves() throws Exception {
+        Board board = Fen.parse("k7/8/2K5/8/8/8/8/7R w - - 0 1");
+        MateSolver solver = new MateSolver(new ProofTable(1));
+
+        assertNull(solver.solve(board, 1, 0).getMove());
+        assertEquals(Search.MATE - 3, solver.solve(board, 2, 0).getScore());
+    }
+
+    @Test
+    public void stopsAtNodeLimit() throws Exception {
+        SearchResult result = new MateSolver(new ProofTable(1)).solve(new Board(), 3, 5000);
+
+        assertNull(result.getMove());
+        assertTrue(result.getNodes() <= 5000 + 256);
+    }
+
+    @Test
+    public void stoppedSolverCanBeReused() throws Exception {
+        Board board = Fen.parse("k7/8/2K5/8/8/8/8/7R w - - 0 1");
+        MateSolver solver = new MateSolver(new ProofTable(1));
+        solver.stop();
+
+        assertNull(solver.solve(board, 2, 0).getMove());
+        assertEquals(Search.MATE - 3, solver.solve(board, 2, 0).getScore());
+    }
+
+}
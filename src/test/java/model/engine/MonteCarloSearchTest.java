@@ -0,0 +1,72 @@
+package model.engine;
+
+import model.chess.Board;
+import model.chess.Fen;
+import model.chess.San;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MonteCarloSearchTest {
+
+    @Test
+    public void capturesHangingQueen() throws Exception {
+        Board board = Fen.parse("4k3/8/8/3q4/8/8/3R4/3K4 w - - 0 1");
+        long hash = board.getHash();
+        MonteCarloSearch search = new MonteCarloSearch(new DefaultEvaluation(), 2, 4);
+        SearchResult result = search.search(board, new SearchLimits(0, 3000, 0));
+
+        assertEquals("Rxd5", San.toSan(board, result.getMove()));
+        assertTrue(result.getScore() > 0);
+        assertEquals(hash, board.getHash());
+        assertEquals(result.getMove(), result.getPrincipalVariation().get(0));
+    }
+
+    @Test
+    public void findsMateInOne() throws Exception {
+        Board board = Fen.parse("r1bqkb1r/pppp1ppp/2n2n2/4p2Q/2B1P3/8/PPPP1PPP/RNB1K1NR w KQkq - 4 4");
+        SearchResult result = new MonteCarloSearch(new DefaultEvaluation(), 1, 4).search(board, new SearchLimits(0, 2000, 0));
+
+        assertEquals("Qxf7#", San.toSan(board, result.getMove()));
+    }
+
+    @Test
+    public void reusesTreeAfterTwoMoves() throws Exception {
+        Board board = new Board();
+        MonteCarloSearch search = new MonteCarloSearch(new DefaultEvaluation(), 1, 4);
+        SearchResult result = search.search(board, new SearchLimits(0, 3000, 0));
+        assertTrue(result.getPrincipalVariation().size() >= 2);
+
+        board.makeMove(result.getPrincipalVariation().get(0));
+        board.makeMove(result.getPrincipalVariation().get(1));
+        int size = search.getSize();
+        search.search(board, new SearchLimits(0, 1, 0));
+
+        //the most visited line has visits of earlier playouts
+        assertTrue(search.getRootVisits() > 2);
+        assertTrue(search.getSize() < size);
+    }
+
+    @Test
+    public void rolloutsLeaveBoardUnchanged() throws Exception {
+        Board board = new Board();
+        long hash = board.getHash();
+        MonteCarloSearch search = new MonteCarloSearch(new DefaultEvaluation(), 2, 4);
+        search.setRolloutPlies(8);
+        SearchResult result = search.search(board, new SearchLimits(0, 500, 0));
+
+        assertNotNull(result.getMove());
+        assertEquals(hash, board.getHash());
+    }
+
+    @Test
+    public void stoppedSearchReturnsAtOnce() throws Exception {
+        MonteCarloSearch search = new MonteCarloSearch(new DefaultEvaluation(), 2, 4);
+        search.stop();
+        SearchResult result = search.search(new Board(), new SearchLimits());
+
+        assertNotNull(result.getMove());
+        assertTrue(result.getTime() < 1000);
+    }
+
+}
@@ -0,0 +1,105 @@
+package model.engine;
+
+import model.chess.Board;
+import model.chess.Fen;
+import model.chess.San;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ParallelSearchTest {
+
+    @Test
+    public void findsWinningCapture() throws Exception {
+        Board board = Fen.parse("4k3/8/8/3q4/8/8/3R4/3K4 w - - 0 1");
+        ParallelSearch search = new ParallelSearch(new DefaultEvaluation(), new TranspositionTable(1), 3);
+        SearchResult result = search.search(board, new SearchLimits(4, 0, 0));
+
+        assertEquals("Rxd5", San.toSan(board, result.getMove()));
+        assertEquals(4, result.getDepth());
+        assertEquals("4k3/8/8/3q4/8/8/3R4/3K4 w - - 0 1", Fen.toFen(board));
+    }
+
+    @Test
+    public void stop() throws Exception {
+        final ParallelSearch search = new ParallelSearch(new DefaultEvaluation(), new TranspositionTable(1), 2);
+        Thread stopper = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException ex) {
+                }
+                search.stop();
+            }
+        });
+        stopper.start();
+        SearchResult result = search.search(new Board(), new SearchLimits());
+        stopper.join();
+
+        assertNotNull(result.getMove());
+        assertTrue(result.getTime() < 5000);
+    }
+
+    @Test
+    public void stopReturnsWithinMilliseconds() throws Exception {
+        final ParallelSearch search = new ParallelSearch(new DefaultEvaluation(), new TranspositionTable(1), 2);
+        final long[] returned = new long[1];
+        Thread searcher = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                search.search(new Board(), new SearchLimits());
+                returned[0] = System.nanoTime();
+            }
+        });
+        searcher.start();
+        Thread.sleep(300);
+        long stopped = System.nanoTime();
+        search.stop();
+        searcher.join(5000);
+
+        assertFalse(searcher.isAlive());
+        assertTrue((returned[0] - stopped) / 1000000 < 200);
+    }
+
+    @Test
+    public void ponderSearchIgnoresTimeUntilPonderHit() throws Exception {
+        final ParallelSearch search = new ParallelSearch(new DefaultEvaluation(), new TranspositionTable(1), 2);
+        final SearchLimits limits = new SearchLimits(0, 0, 100);
+        limits.setPonder(true);
+        final SearchResult[] result = new SearchResult[1];
+        Thread ponder = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                result[0] = search.search(new Board(), limits);
+            }
+        });
+        ponder.start();
+        Thread.sleep(400);
+        assertTrue(ponder.isAlive());
+
+        search.ponderHit();
+        ponder.join(5000);
+        assertFalse(ponder.isAlive());
+        assertNotNull(result[0].getMove());
+        assertTrue(result[0].getTime() >= 400);
+    }
+
+    @Test
+    public void ponderHitBeforeStart() throws Exception {
+        ParallelSearch search = new ParallelSearch(new DefaultEvaluation(), new TranspositionTable(1), 1);
+        SearchLimits limits = new SearchLimits(0, 0, 100);
+        limits.setPonder(true);
+        search.ponderHit();
+        SearchResult result = search.search(new Board(), limits);
+
+        assertNotNull(result.getMove());
+        assertTrue(result.getTime() < 5000);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void noThreads() throws Exception {
+        new ParallelSearch(new DefaultEvaluation(), new TranspositionTable(1), 0);
+    }
+
+}
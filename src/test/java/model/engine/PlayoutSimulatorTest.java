@@ -0,0 +1,51 @@
+package model.engine;
+
+import java.util.Random;
+import model.chess.Fen;
+import model.engine.PlayoutSimulator.Outcome;
+import model.engine.PlayoutSimulator.Report;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PlayoutSimulatorTest {
+
+    @Test
+    public void resultsDoNotDependOnThreads() throws Exception {
+        Report single = new PlayoutSimulator(Fen.START, 1).run(20);
+        Report parallel = new PlayoutSimulator(Fen.START, 3).run(20);
+
+        assertEquals(20, single.getGames());
+        assertEquals(single.getPlies(), parallel.getPlies());
+        for (Outcome outcome : Outcome.values()) {
+            assertEquals(outcome.toString(), single.getCount(outcome), parallel.getCount(outcome));
+        }
+        assertTrue(single.getAverageLength() > 0);
+        assertEquals(0, single.getCount(Outcome.MAX_PLIES));
+    }
+
+    @Test
+    public void decidesFinishedPositions() throws Exception {
+        PlayoutSimulator simulator = new PlayoutSimulator(Fen.START, 1);
+        assertEquals(Outcome.BLACK_WINS, simulator.play(
+                Fen.parse("rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3"), new Random(0)));
+        assertEquals(Outcome.STALEMATE, simulator.play(Fen.parse("k7/2Q5/1K6/8/8/8/8/8 b - - 0 1"), new Random(0)));
+        assertEquals(Outcome.INSUFFICIENT_MATERIAL, simulator.play(Fen.parse("4k3/8/8/8/8/8/8/2B1K3 w - - 0 1"), new Random(0)));
+    }
+
+    @Test
+    public void guidedGamesFinish() throws Exception {
+        PlayoutSimulator simulator = new PlayoutSimulator(Fen.START, 2);
+        simulator.setGuide(new DefaultEvaluation());
+        Report report = simulator.run(10);
+
+        assertEquals(10, report.getGames());
+        assertTrue(report.getGamesPerSecond() > 0);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void failedGameIsReported() throws Exception {
+        new PlayoutSimulator("not a position", 2).run(10);
+    }
+
+}
@@ -0,0 +1,161 @@
+package model.engine;
+
+import model.chess.Board;
+import model.chess.Fen;
+import model.chess.GamePhase;
+import model.chess.San;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SearchTest {
+
+    private SearchResult search(Board board, int depth) {
+        return new Search(new DefaultEvaluation()).search(board, new SearchLimits(depth, 0, 0));
+    }
+
+    @Test
+    public void findsMateInOne() throws Exception {
+        Board board = Fen.parse("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        SearchResult result = search(board, 3);
+
+        assertEquals("Ra8#", San.toSan(board, result.getMove()));
+        assertEquals(Search.MATE - 1, result.getScore());
+    }
+
+    @Test
+    public void principalVariationEndsWithMate() throws Exception {
+        Board board = Fen.parse("k7/8/2K5/8/8/8/8/7R w - - 0 1");
+        SearchResult result = search(board, 5);
+
+        assertEquals(Search.MATE - 3, result.getScore());
+        assertEquals(3, result.getPrincipalVariation().size());
+        assertEquals(result.getMove(), result.getPrincipalVariation().get(0));
+        assertTrue(result.getPrincipalVariationSan().endsWith("#"));
+    }
+
+    @Test
+    public void principalVariationStartsWithBestMove() throws Exception {
+        Board board = Fen.parse("r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w KQkq - 2 3");
+        SearchResult result = search(board, 5);
+
+        assertTrue(result.getPrincipalVariation().size() >= 2);
+        assertEquals(San.toSan(board, result.getMove()), result.getPrincipalVariationSan().split(" ")[0]);
+    }
+
+    @Test
+    public void findsWinningCapture() throws Exception {
+        Board board = Fen.parse("4k3/8/8/3q4/8/8/3R4/3K4 w - - 0 1");
+        SearchResult result = search(board, 2);
+
+        assertEquals("Rxd5", San.toSan(board, result.getMove()));
+    }
+
+    @Test
+    public void defendedPawnIsNotTaken() throws Exception {
+        Board board = Fen.parse("k7/8/4p3/3p4/8/8/8/3QK3 w - - 0 1");
+        SearchResult result = search(board, 1);
+
+        assertNotEquals("Qxd5", San.toSan(board, result.getMove()));
+    }
+
+    @Test
+    public void boardIsUnchanged() throws Exception {
+        Board board = Fen.parse("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        long hash = board.getHash();
+        search(board, 3);
+
+        assertEquals(hash, board.getHash());
+        assertEquals(0, board.getHistorySize());
+        assertEquals("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1", Fen.toFen(board));
+    }
+
+    @Test
+    public void stalemateIsDraw() throws Exception {
+        Board board = Fen.parse("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1");
+        SearchResult result = search(board, 2);
+
+        assertNull(result.getMove());
+        assertEquals(0, result.getScore());
+    }
+
+    @Test
+    public void nodeLimit() throws Exception {
+        SearchResult result = new Search(new DefaultEvaluation()).search(new Board(), new SearchLimits(0, 5000, 0));
+
+        assertNotNull(result.getMove());
+        assertTrue(result.getNodes() < 5000 + 2048);
+    }
+
+    @Test
+    public void clockLimitsTime() throws Exception {
+        SearchLimits limits = new SearchLimits();
+        limits.setRemainingTime(3000);
+        SearchResult result = new Search(new DefaultEvaluation()).search(new Board(), limits);
+
+        assertNotNull(result.getMove());
+        assertTrue(result.getDepth() > 0);
+        assertTrue(result.getTime() <= new TimeManager(3000, GamePhase.OPENING).getMaximumTime() + 100);
+    }
+
+    @Test
+    public void onlyMoveIsPlayedAtOnce() throws Exception {
+        Board board = Fen.parse("7k/8/8/8/8/8/P7/K6r w - - 0 1");
+        SearchLimits limits = new SearchLimits();
+        limits.setRemainingTime(60000);
+        SearchResult result = new Search(new DefaultEvaluation()).search(board, limits);
+
+        assertEquals("Kb2", San.toSan(board, result.getMove()));
+        assertEquals(0, result.getNodes());
+    }
+
+    @Test
+    public void selectiveSearchCanBeDisabled() throws Exception {
+        Board board = Fen.parse("r1bqkb1r/pppp1ppp/2n2n2/4p3/2B1P3/5N2/PPPP1PPP/RNBQK2R w KQkq - 4 4");
+        Search search = new Search(new DefaultEvaluation(), new TranspositionTable(1));
+        search.setOptions(new SearchOptions(false));
+        SearchStats stats = search.search(board, new SearchLimits(4, 0, 0)).getStats();
+
+        assertEquals(0, stats.getNullMoveCutoffs());
+        assertEquals(0, stats.getReductions());
+        assertEquals(0, stats.getFutilityPruned());
+        assertEquals(0, stats.getReverseFutilityCutoffs());
+        assertEquals(0, stats.getLateMovesPruned());
+        assertEquals(0, stats.getCheckExtensions());
+        assertEquals(0, stats.getRecaptureExtensions());
+        assertEquals(0, stats.getLosingCapturesPruned());
+
+        stats = search(board, 5).getStats();
+        assertTrue(stats.getNullMoveCutoffs() > 0);
+        assertTrue(stats.getReductions() > 0);
+        assertTrue(stats.getCheckExtensions() > 0);
+    }
+
+    @Test
+    public void singularAndRecaptureExtensions() throws Exception {
+        Board board = Fen.parse("r3k2r/ppp2ppp/2n1bn2/3pp3/3PP3/2N1BN2/PPP2PPP/R3K2R w KQkq - 0 1");
+        SearchStats stats = search(board, 7).getStats();
+
+        assertTrue(stats.getSingularExtensions() > 0);
+        assertTrue(stats.getRecaptureExtensions() > 0);
+
+        Search search = new Search(new DefaultEvaluation());
+        SearchOptions options = new SearchOptions();
+        options.setExtensions(false);
+        search.setOptions(options);
+        stats = search.search(board, new SearchLimits(7, 0, 0)).getStats();
+
+        assertEquals(0, stats.getSingularExtensions());
+        assertEquals(0, stats.getRecaptureExtensions());
+        assertEquals(0, stats.getCheckExtensions());
+    }
+
+    @Test
+    public void noNullMoveInPawnEnding() throws Exception {
+        Board board = Fen.parse("8/5k2/3p4/1p1Pp2p/pP2Pp1P/P4P1K/8/8 b - - 0 1");
+        SearchResult result = search(board, 6);
+
+        assertEquals(0, result.getStats().getNullMoveCutoffs());
+    }
+
+}
@@ -0,0 +1,39 @@
+package model.engine;
+
+import model.chess.Board;
+import model.chess.Fen;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class StrengthTest {
+
+    @Test
+    public void limitedLevelsStayWithinBudget() throws Exception {
+        Board board = Fen.parse("r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w KQkq - 2 3");
+        for (Strength strength : Strength.values()) {
+            if (!strength.isLimited()) {
+                continue;
+            }
+            Search search = new Search(strength.createEvaluation(42), new TranspositionTable(Strength.LIMITED_TABLE_SIZE_MB));
+            SearchResult result = search.search(board, strength.getLimits());
+
+            assertNotNull(strength.toString(), result.getMove());
+            assertTrue(strength + " searched " + result.getNodes() + " nodes", result.getNodes() <= strength.getNodes());
+            assertTrue(strength.toString(), result.getDepth() <= strength.getDepth());
+        }
+    }
+
+    @Test
+    public void noisyEvaluationIsStable() throws Exception {
+        Board board = Fen.parse("r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w KQkq - 2 3");
+        Evaluation exact = new DefaultEvaluation();
+        NoisyEvaluation noisy = new NoisyEvaluation(exact, 50, 7);
+
+        int score = noisy.evaluate(board);
+        assertEquals(score, noisy.evaluate(board));
+        assertTrue(Math.abs(score - exact.evaluate(board)) <= 50);
+        assertEquals(exact.evaluate(board), new NoisyEvaluation(exact, 0, 7).evaluate(board));
+    }
+
+}
@@ -0,0 +1,55 @@
+package model.engine;
+
+import model.chess.Board;
+import model.chess.Coordinate;
+import model.chess.GamePhase;
+import model.chess.Move;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TimeManagerTest {
+
+    @Test
+    public void limits() throws Exception {
+        TimeManager manager = new TimeManager(900000, GamePhase.MIDDLEGAME);
+
+        assertEquals((900000 - TimeManager.SAFETY_MARGIN) / 30, manager.getOptimumTime());
+        assertTrue(manager.getMaximumTime() > manager.getOptimumTime());
+        assertTrue(manager.getMaximumTime() <= (900000 - TimeManager.SAFETY_MARGIN) / 4);
+    }
+
+    @Test
+    public void moreTimeInEndgame() throws Exception {
+        long opening = new TimeManager(60000, GamePhase.OPENING).getOptimumTime();
+        long endgame = new TimeManager(60000, GamePhase.ENDGAME).getOptimumTime();
+
+        assertTrue(endgame > opening);
+    }
+
+    @Test
+    public void almostNoTime() throws Exception {
+        TimeManager manager = new TimeManager(1000, GamePhase.ENDGAME);
+
+        assertEquals(TimeManager.MIN_TIME, manager.getOptimumTime());
+        assertEquals(TimeManager.MIN_TIME, manager.getMaximumTime());
+    }
+
+    @Test
+    public void stableMoveSavesTime() throws Exception {
+        Board board = new Board();
+        Move move = new Move(board, new Coordinate(4, 6), new Coordinate(4, 4));
+        Move other = new Move(board, new Coordinate(3, 6), new Coordinate(3, 4));
+        TimeManager manager = new TimeManager(60000, GamePhase.MIDDLEGAME);
+        long optimum = manager.getOptimumTime();
+
+        for (int depth = 1; depth <= 5; depth++) {
+            manager.iterationFinished(move, 20, depth);
+        }
+        assertFalse(manager.canStartIteration(optimum * 3 / 4));
+
+        manager.iterationFinished(other, -50, 6);
+        assertTrue(manager.canStartIteration(optimum * 2));
+    }
+
+}
@@ -0,0 +1,131 @@
+package model.engine;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import model.chess.Board;
+import model.chess.Coordinate;
+import model.chess.Move;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TranspositionTableTest {
+
+    @Test
+    public void storeAndProbe() throws Exception {
+        TranspositionTable table = new TranspositionTable(1);
+        Board board = new Board();
+        int move = TranspositionTable.packMove(new Move(board, new Coordinate(4, 6), new Coordinate(4, 4)));
+
+        table.store(board.getHash(), 7, TranspositionTable.LOWER, -1234, move);
+        long entry = table.probe(board.getHash());
+
+        assertEquals(7, TranspositionTable.getDepth(entry));
+        assertEquals(TranspositionTable.LOWER, TranspositionTable.getBound(entry));
+        assertEquals(-1234, TranspositionTable.getScore(entry));
+        assertEquals(move, TranspositionTable.getMove(entry));
+        assertEquals(0, table.probe(board.getHash() + 1));
+    }
+
+    @Test
+    public void keepsMoveOfSamePosition() throws Exception {
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(42, 3, TranspositionTable.EXACT, 10, 100);
+        table.store(42, 4, TranspositionTable.UPPER, -Search.MATE, 0);
+        long entry = table.probe(42);
+
+        assertEquals(100, TranspositionTable.getMove(entry));
+        assertEquals(-Search.MATE, TranspositionTable.getScore(entry));
+    }
+
+    @Test
+    public void clear() throws Exception {
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(42, 3, TranspositionTable.EXACT, 10, 100);
+        table.clear();
+
+        assertEquals(0, table.probe(42));
+        assertEquals(1 << 16, table.getSize());
+    }
+
+    @Test
+    public void deepEntriesSurviveInBucket() throws Exception {
+        TranspositionTable table = new TranspositionTable(1);
+        //keys with the same high half fall into the same bucket
+        for (int i = 1; i <= 3; i++) {
+            table.store(i, 10, TranspositionTable.EXACT, i, 0);
+        }
+        for (int i = 4; i <= 10; i++) {
+            table.store(i, 1, TranspositionTable.EXACT, i, 0);
+        }
+
+        for (int i = 1; i <= 3; i++) {
+            assertEquals(i, TranspositionTable.getScore(table.probe(i)));
+        }
+        assertEquals(10, TranspositionTable.getScore(table.probe(10)));
+        assertEquals(0, table.probe(9));
+    }
+
+    @Test
+    public void oldEntriesAreReplaced() throws Exception {
+        TranspositionTable table = new TranspositionTable(1);
+        for (int i = 1; i <= 3; i++) {
+            table.store(i, 10, TranspositionTable.EXACT, i, 0);
+        }
+        table.newSearch();
+        table.store(4, 1, TranspositionTable.EXACT, 4, 0);
+        table.store(5, 1, TranspositionTable.EXACT, 5, 0);
+
+        assertEquals(4, TranspositionTable.getScore(table.probe(4)));
+        assertEquals(5, TranspositionTable.getScore(table.probe(5)));
+    }
+
+    @Test
+    public void resize() throws Exception {
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(42, 3, TranspositionTable.EXACT, 10, 100);
+        table.resize(3);
+
+        assertEquals(0, table.probe(42));
+        assertEquals(3 << 16, table.getSize());
+        table.store(-42, 3, TranspositionTable.EXACT, 10, 100);
+        assertEquals(100, TranspositionTable.getMove(table.probe(-42)));
+    }
+
+    @Test
+    public void tornEntriesAreIgnored() throws Exception {
+        final TranspositionTable table = new TranspositionTable(1);
+        final int threads = 4;
+        final AtomicInteger errors = new AtomicInteger();
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int seed = t;
+            workers[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < 200000; i++) {
+                        //few keys in one bucket, so threads overwrite each other
+                        long hash = random.nextInt(8);
+                        if (random.nextBoolean()) {
+                            table.store(hash, seed, TranspositionTable.EXACT, (int) hash * 100 + seed, 0);
+                        } else {
+                            long entry = table.probe(hash);
+                            if (entry != 0 && TranspositionTable.getScore(entry)
+                                    != hash * 100 + TranspositionTable.getDepth(entry)) {
+                                errors.incrementAndGet();
+                            }
+                        }
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals(0, errors.get());
+    }
+
+}